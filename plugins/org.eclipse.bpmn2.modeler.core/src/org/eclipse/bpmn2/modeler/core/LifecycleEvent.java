@@ -13,6 +13,8 @@
 
 package org.eclipse.bpmn2.modeler.core;
 
+import java.util.Collection;
+
 import org.eclipse.bpmn2.modeler.core.adapters.ExtendedPropertiesAdapter;
 import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntime;
 import org.eclipse.bpmn2.modeler.core.utils.BusinessObjectUtil;
@@ -401,6 +403,10 @@ public class LifecycleEvent {
 		 * <p>
 		 * The {@code LifecycleEvent.target} field will contain the Transaction
 		 * object.
+		 * <p>
+		 * If the editor has been configured to coalesce transaction events, the
+		 * {@code LifecycleEvent.changedObjects} field will contain the business
+		 * objects that were changed by the transaction.
 		 */
 		TRANSACTION_CLOSED,
 		// Command Stack Events:
@@ -434,6 +440,8 @@ public class LifecycleEvent {
 	public boolean doit = true;
 	/** current target runtime the event is fired on */
 	public TargetRuntime targetRuntime;
+	/** The business objects changed by a transaction, for coalesced TRANSACTION_CLOSED events */
+	public Collection<EObject> changedObjects;
 	
 	/**
 	 * Constructor for a simple event type and event object.
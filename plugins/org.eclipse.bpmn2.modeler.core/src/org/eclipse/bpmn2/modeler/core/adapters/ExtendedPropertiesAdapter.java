@@ -13,10 +13,14 @@
 
 package org.eclipse.bpmn2.modeler.core.adapters;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.WeakHashMap;
 
 import org.eclipse.bpmn2.Activity;
 import org.eclipse.bpmn2.CallableElement;
@@ -135,6 +139,22 @@ public class ExtendedPropertiesAdapter<T extends EObject> extends AdapterImpl im
 	 */
 	public final static String UI_SHOW_ITEMS_IN_SCOPE = "show.items.in.scope"; //$NON-NLS-1$
 
+	/**
+	 * The Adapter Factory used for adapters that are not constructed by a
+	 * registered factory. {@code AdapterFactoryImpl} is stateless, so a single
+	 * instance can be shared.
+	 */
+	private static final AdapterFactory ADAPTER_FACTORY = new AdapterFactoryImpl();
+
+	/**
+	 * Cache of dummy objects, one per EClass. The values are soft references
+	 * because a dummy object strongly references its EClass. These objects are
+	 * shared, so they must never be given a Resource, Target Runtime or
+	 * feature descriptor state.
+	 */
+	private static final Map<EClass, SoftReference<EObject>> dummyObjects =
+			Collections.synchronizedMap(new WeakHashMap<EClass, SoftReference<EObject>>());
+
 	protected Hashtable<String, Object> properties = new Hashtable<String, Object>();
 
 	/**
@@ -187,9 +207,11 @@ public class ExtendedPropertiesAdapter<T extends EObject> extends AdapterImpl im
         if (ped==null && rt != TargetRuntime.getDefaultRuntime())
             ped = TargetRuntime.getDefaultRuntime().getPropertyExtension(eClass.getInstanceClass());
         if (ped!=null)
-            return ped.getAdapter(new AdapterFactoryImpl(), eClass);
+            return ped.getAdapter(ADAPTER_FACTORY, eClass);
         
-		EObject object = getDummyObject(eClass);
+		// the adapter is given this Resource and Target Runtime, so the
+		// dummy object can not be shared with other editors
+		EObject object = createDummyObject(eClass);
 		TargetRuntimeAdapter.adapt(object, rt);
 		ExtendedPropertiesAdapter adapter = adapt(object);
 		adapter.setResource(resource);
@@ -209,7 +231,7 @@ public class ExtendedPropertiesAdapter<T extends EObject> extends AdapterImpl im
 	public static ExtendedPropertiesAdapter adapt(Resource resource, EObject object, EStructuralFeature feature) {
 		Assert.isTrue(feature!=null);
 		if (object instanceof EClass) {
-			object = getDummyObject((EClass)object);
+			object = createDummyObject((EClass)object);
 		}
 		else if (resource==null)
 			resource = getResource(object);
@@ -224,7 +246,7 @@ public class ExtendedPropertiesAdapter<T extends EObject> extends AdapterImpl im
 		adapter = (ExtendedPropertiesAdapter) AdapterUtil.adapt(object, ExtendedPropertiesAdapter.class);
 		
 		if (adapter==null)
-			adapter = new ExtendedPropertiesAdapter(new AdapterFactoryImpl(), object);
+			adapter = new ExtendedPropertiesAdapter(ADAPTER_FACTORY, object);
 
 		if (adapter!=null) {
 			adapter.setTarget(object);
@@ -254,7 +276,7 @@ public class ExtendedPropertiesAdapter<T extends EObject> extends AdapterImpl im
 
 		ExtendedPropertiesAdapter adapter = (ExtendedPropertiesAdapter) AdapterUtil.adapt(object, ExtendedPropertiesAdapter.class);
 		if (adapter==null)
-			adapter = new ExtendedPropertiesAdapter(new AdapterFactoryImpl(), object);
+			adapter = new ExtendedPropertiesAdapter(ADAPTER_FACTORY, object);
 		if (adapter!=null) {
 			adapter.setTarget(object);
 			adapter.getObjectDescriptor().setObject(object);
@@ -270,11 +292,35 @@ public class ExtendedPropertiesAdapter<T extends EObject> extends AdapterImpl im
 	 * construct an ExtendedPropertiesAdapter from an EClass, however the
 	 * adapter itself needs an EObject. This method constructs and caches these
 	 * dummy objects as they are needed.
+	 * <p>
+	 * The returned object is shared by all clients; use
+	 * {@link #createDummyObject(EClass)} if the object or its adapters will be
+	 * given any Resource or Target Runtime specific state.
 	 * 
 	 * @param eclass EClass of the object to create.
 	 * @return an orphan EObject of the given EClass type.
 	 */
 	public static EObject getDummyObject(EClass eClass) {
+		SoftReference<EObject> ref = dummyObjects.get(eClass);
+		EObject object = ref==null ? null : ref.get();
+		if (object==null) {
+			object = createDummyObject(eClass);
+			if (object!=null)
+				dummyObjects.put(eClass, new SoftReference<EObject>(object));
+		}
+		return object;
+	}
+
+	/**
+	 * Constructs a new dummy object that is not shared with other clients.
+	 * Use this instead of {@link #getDummyObject(EClass)} if the object's
+	 * feature values will be modified, or if the object or its adapter will be
+	 * associated with a Resource or Target Runtime.
+	 * 
+	 * @param eclass EClass of the object to create.
+	 * @return an orphan EObject of the given EClass type.
+	 */
+	public static EObject createDummyObject(EClass eClass) {
 		EObject object = null;
 		EFactory factory = eClass.getEPackage().getEFactoryInstance();
 		if (factory instanceof Bpmn2ModelerFactory) {
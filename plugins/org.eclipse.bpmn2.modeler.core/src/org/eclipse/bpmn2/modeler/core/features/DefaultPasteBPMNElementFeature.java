@@ -10,11 +10,14 @@
  ******************************************************************************/
 package org.eclipse.bpmn2.modeler.core.features;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.bpmn2.Activity;
 import org.eclipse.bpmn2.Association;
@@ -52,6 +55,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
 import org.eclipse.graphiti.datatypes.IDimension;
 import org.eclipse.graphiti.datatypes.ILocation;
@@ -90,7 +94,13 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 	 * Maps the ID strings of the original BPMN2 elements to their
 	 * corresponding newly constructed copies.
 	 */
-	protected Hashtable<String, String> idMap;
+	protected IdMap idMap;
+	
+	/**
+	 * Maps the ID strings of the objects in the target Definitions, and of
+	 * the newly constructed copies, to the objects themselves.
+	 */
+	private HashMap<String, EObject> idObjects;
 	
 	/** The shape map. */
 	protected HashMap<ContainerShape, ContainerShape> shapeMap;
@@ -186,7 +196,7 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 		diagram = getFeatureProvider().getDiagramTypeProvider().getDiagram();
 		resource = targetContainerObject.eResource();
 		definitions = ModelUtil.getDefinitions(resource);
-		idMap = new Hashtable<String, String>();
+		initIdMaps();
 		shapeMap = new HashMap<ContainerShape, ContainerShape>();
 		connectionMap = new HashMap<Connection, Connection>();
 		xReference = 0;
@@ -252,6 +262,23 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 		getDiagramEditor().setPictogramElementsForSelection(newPes);
 	}
 	
+	/**
+	 * Clear the map of copied IDs and index the IDs of all objects in the
+	 * target {@link #definitions}. This must be called before any objects
+	 * are pasted.
+	 */
+	protected void initIdMaps() {
+		idMap = new IdMap();
+		idObjects = new HashMap<String, EObject>();
+		TreeIterator<EObject> iter = definitions.eAllContents();
+		while (iter.hasNext()) {
+			EObject o = iter.next();
+			String id = getId(o);
+			if (id!=null && !id.isEmpty() && !idObjects.containsKey(id))
+				idObjects.put(id, o);
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.graphiti.ui.features.AbstractPasteFeature#getFromClipboard()
 	 */
@@ -327,13 +354,11 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 	private BaseElement createNewObject(BaseElement oldObject, BaseElement targetContainerObject) {
 		BaseElement newObject = null;
 		try {
-			Bpmn2ModelerFactory.lock();
 			Bpmn2ModelerFactory.setEnableModelExtensions(false);
 			newObject = copyEObject(oldObject);
 		}
 		finally {
 			Bpmn2ModelerFactory.setEnableModelExtensions(true);
-			Bpmn2ModelerFactory.unlock();
 		}
 		
 		if (targetContainerObject instanceof Participant) {
@@ -404,6 +429,20 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 			}
 		}
 
+		remapIds(oldObject, newObject);
+		return newObject;
+	}
+
+	/**
+	 * Assign new IDs to a newly constructed copy and all of its contents, and
+	 * point the copy's references to objects that were copied by this paste
+	 * operation to their copies. The copy must already have been added to the
+	 * target {@link #definitions}.
+	 * 
+	 * @param oldObject the original object
+	 * @param newObject the copy of the original object
+	 */
+	protected void remapIds(EObject oldObject, EObject newObject) {
 		// Ensure IDs are unique
 		setId(newObject);
 
@@ -453,7 +492,6 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 				}
 			}
 		}
-		return newObject;
 	}
 
 	private String getId(EObject newObject) {
@@ -473,7 +511,7 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 			if (oldId == null)
 				return  "";  // can't set a hash entry without a key
 			
-			if (idMap.contains(oldId)) {
+			if (idMap.containsValue(oldId)) {
 				newId = idMap.get(oldId);
 				newObject.eSet(feature, newId);
 			}
@@ -482,11 +520,20 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 				newId = ModelUtil.setID(newObject);
 				idMap.put(oldId, newId);
 			}
+			if (newId!=null && !newId.isEmpty() && !idObjects.containsKey(newId))
+				idObjects.put(newId, newObject);
 		}
 		return oldId;
 	}
 
-	private boolean wasCopied(EObject object) {
+	/**
+	 * Check if the given object is a copy that was constructed by this paste
+	 * operation.
+	 * 
+	 * @param object a model object
+	 * @return true if the object's ID was assigned by {@link #remapIds(EObject, EObject)}
+	 */
+	protected boolean wasCopied(EObject object) {
 		String id = getId(object);
 		if (id!=null) {
 			return idMap.containsValue(id);
@@ -495,6 +542,18 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 	}
 	
 	private EObject findObjectById(String id) {
+		EObject o = idObjects.get(id);
+		if (o!=null && id.equals(getId(o)) && EcoreUtil.isAncestor(definitions, o))
+			return o;
+		
+		// not indexed, or no longer in the Definitions: search for it
+		o = searchObjectById(id);
+		if (o!=null)
+			idObjects.put(id, o);
+		return o;
+	}
+	
+	private EObject searchObjectById(String id) {
 		TreeIterator<EObject> iter = definitions.eAllContents();
 		while (iter.hasNext()) {
 			EObject o = iter.next();
@@ -785,4 +844,150 @@ public class DefaultPasteBPMNElementFeature extends AbstractPasteFeature {
 	protected DiagramEditor getDiagramEditor() {
 		return (DiagramEditor)getFeatureProvider().getDiagramTypeProvider().getDiagramBehavior().getDiagramContainer();
 	}
+
+	/**
+	 * Maps the IDs of the original objects to the IDs of their copies. The
+	 * reverse direction keeps a count of the original IDs for each copy ID,
+	 * so that {@link #containsValue(Object)} does not need to search all of
+	 * the entries. Changes made through the collection views and their
+	 * iterators keep the counts up to date. Like {@code Hashtable}, null keys
+	 * and values are not allowed.
+	 */
+	protected static class IdMap extends AbstractMap<String, String> {
+
+		private final HashMap<String, String> copyIds = new HashMap<String, String>();
+		private final HashMap<String, Integer> originalIdCounts = new HashMap<String, Integer>();
+		private Set<Entry<String, String>> entrySet;
+
+		public IdMap() {
+		}
+
+		@Override
+		public String get(Object originalId) {
+			return copyIds.get(originalId);
+		}
+
+		@Override
+		public String put(String originalId, String copyId) {
+			if (originalId==null || copyId==null)
+				throw new NullPointerException();
+			String oldCopyId = copyIds.put(originalId, copyId);
+			if (oldCopyId!=null)
+				removeCopyId(oldCopyId);
+			addCopyId(copyId);
+			return oldCopyId;
+		}
+
+		@Override
+		public String remove(Object originalId) {
+			String oldCopyId = copyIds.remove(originalId);
+			if (oldCopyId!=null)
+				removeCopyId(oldCopyId);
+			return oldCopyId;
+		}
+
+		@Override
+		public boolean containsKey(Object originalId) {
+			return copyIds.containsKey(originalId);
+		}
+
+		@Override
+		public boolean containsValue(Object copyId) {
+			return originalIdCounts.containsKey(copyId);
+		}
+
+		@Override
+		public int size() {
+			return copyIds.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return copyIds.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			copyIds.clear();
+			originalIdCounts.clear();
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			if (entrySet==null)
+				entrySet = new EntrySet();
+			return entrySet;
+		}
+
+		private void addCopyId(String copyId) {
+			Integer count = originalIdCounts.get(copyId);
+			originalIdCounts.put(copyId, count==null ? 1 : count + 1);
+		}
+
+		private void removeCopyId(String copyId) {
+			Integer count = originalIdCounts.get(copyId);
+			if (count==null || count<=1)
+				originalIdCounts.remove(copyId);
+			else
+				originalIdCounts.put(copyId, count - 1);
+		}
+
+		private class EntrySet extends AbstractSet<Entry<String, String>> {
+
+			@Override
+			public Iterator<Entry<String, String>> iterator() {
+				final Iterator<Entry<String, String>> iter = copyIds.entrySet().iterator();
+				return new Iterator<Entry<String, String>>() {
+					private Entry<String, String> current;
+
+					public boolean hasNext() {
+						return iter.hasNext();
+					}
+
+					public Entry<String, String> next() {
+						current = iter.next();
+						return new IdEntry(current);
+					}
+
+					public void remove() {
+						iter.remove();
+						removeCopyId(current.getValue());
+						current = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return copyIds.size();
+			}
+
+			@Override
+			public void clear() {
+				IdMap.this.clear();
+			}
+		}
+
+		private class IdEntry extends SimpleEntry<String, String> {
+
+			private static final long serialVersionUID = 1L;
+			private final Entry<String, String> entry;
+
+			IdEntry(Entry<String, String> entry) {
+				super(entry);
+				this.entry = entry;
+			}
+
+			@Override
+			public String setValue(String copyId) {
+				if (copyId==null)
+					throw new NullPointerException();
+				String oldCopyId = entry.setValue(copyId);
+				removeCopyId(oldCopyId);
+				addCopyId(copyId);
+				super.setValue(copyId);
+				return oldCopyId;
+			}
+		}
+	}
 }
@@ -15,6 +15,7 @@ package org.eclipse.bpmn2.modeler.core.merrimac.clad;
 
 import java.lang.reflect.Constructor;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.bpmn2.modeler.core.Activator;
 import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntime;
@@ -46,6 +47,38 @@ public class PropertiesCompositeFactory implements IPropertiesCompositeFactory {
 	protected final static Hashtable<TargetRuntime, Hashtable<Class,Class>> listRegistry = new Hashtable<TargetRuntime,Hashtable<Class,Class>>();
 	protected final static Hashtable<TargetRuntime, Hashtable<Class,Class>> dialogRegistry = new Hashtable<TargetRuntime,Hashtable<Class,Class>>();
 	
+	// Results of the find*CompositeClass() methods, including the fall back to
+	// the default Target Runtime. These are cleared whenever a composite is registered.
+	private final static ConcurrentHashMap<CompositeKey, Class> detailCache = new ConcurrentHashMap<CompositeKey, Class>();
+	private final static ConcurrentHashMap<CompositeKey, Class> listCache = new ConcurrentHashMap<CompositeKey, Class>();
+	private final static ConcurrentHashMap<CompositeKey, Class> dialogCache = new ConcurrentHashMap<CompositeKey, Class>();
+	// cache value for lookups that did not find a composite class
+	private final static Class NOT_FOUND = Void.class;
+	
+	private static final class CompositeKey {
+		final TargetRuntime rt;
+		final Class eClass;
+
+		CompositeKey(TargetRuntime rt, Class eClass) {
+			this.rt = rt;
+			this.eClass = eClass;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof CompositeKey) {
+				CompositeKey other = (CompositeKey) obj;
+				return rt==other.rt && eClass==other.eClass;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(rt) + System.identityHashCode(eClass);
+		}
+	}
+	
 	public static IPropertiesCompositeFactory INSTANCE = new PropertiesCompositeFactory();
 	
 	public static void register(Class eClass, Class composite, TargetRuntime targetRuntime) {
@@ -70,6 +103,9 @@ public class PropertiesCompositeFactory implements IPropertiesCompositeFactory {
 				detailRegistry.put(targetRuntime,map);
 		}
 		map.put(eClass, composite);
+		detailCache.clear();
+		listCache.clear();
+		dialogCache.clear();
 		
 		// make sure the constructors are declared
 		try {
@@ -102,13 +138,7 @@ public class PropertiesCompositeFactory implements IPropertiesCompositeFactory {
 	// Detail Composite methods
 	////////////////////////////////////////////////////////////////////////////////
 	public static Class findDetailCompositeClass(Class eClass, TargetRuntime targetRuntime) {
-		Class composite = findCompositeClass(detailRegistry.get(targetRuntime),eClass);
-		if (composite==null && targetRuntime!=TargetRuntime.getDefaultRuntime()) {
-			// fall back to default target runtime
-			targetRuntime = TargetRuntime.getDefaultRuntime();
-			composite = findCompositeClass(detailRegistry.get(targetRuntime),eClass);
-		}
-		return composite;
+		return findCompositeClass(detailRegistry, detailCache, eClass, targetRuntime);
 	}
 
 	public AbstractDetailComposite createDetailComposite(Class eClass, AbstractBpmn2PropertySection section, TargetRuntime targetRuntime) {
@@ -125,13 +155,7 @@ public class PropertiesCompositeFactory implements IPropertiesCompositeFactory {
 	// List Composite methods
 	////////////////////////////////////////////////////////////////////////////////
 	public static Class findListCompositeClass(Class eClass, TargetRuntime targetRuntime) {
-		Class composite = findCompositeClass(listRegistry.get(targetRuntime),eClass);
-		if (composite==null && targetRuntime!=TargetRuntime.getDefaultRuntime()) {
-			// fall back to default target runtime
-			targetRuntime = TargetRuntime.getDefaultRuntime();
-			composite = findCompositeClass(listRegistry.get(targetRuntime),eClass);
-		}
-		return composite;
+		return findCompositeClass(listRegistry, listCache, eClass, targetRuntime);
 	}
 
 	public AbstractListComposite createListComposite(Class eClass, AbstractBpmn2PropertySection section, TargetRuntime targetRuntime) {
@@ -148,13 +172,7 @@ public class PropertiesCompositeFactory implements IPropertiesCompositeFactory {
 	// Dialog Composite methods
 	////////////////////////////////////////////////////////////////////////////////
 	public static Class findDialogCompositeClass(Class eClass, TargetRuntime targetRuntime) {
-		Class composite = findCompositeClass(dialogRegistry.get(targetRuntime),eClass);
-		if (composite==null && targetRuntime!=TargetRuntime.getDefaultRuntime()) {
-			// fall back to default target runtime
-			targetRuntime = TargetRuntime.getDefaultRuntime();
-			composite = findCompositeClass(dialogRegistry.get(targetRuntime),eClass);
-		}
-		return composite;
+		return findCompositeClass(dialogRegistry, dialogCache, eClass, targetRuntime);
 	}
 	
 	public AbstractDialogComposite createDialogComposite(EClass eClass, Composite parent, TargetRuntime targetRuntime, int style) {
@@ -185,6 +203,23 @@ public class PropertiesCompositeFactory implements IPropertiesCompositeFactory {
 	////////////////////////////////////////////////////////////////////////////////
 	// Common
 	////////////////////////////////////////////////////////////////////////////////
+	private static Class findCompositeClass(Hashtable<TargetRuntime, Hashtable<Class,Class>> registry,
+			ConcurrentHashMap<CompositeKey, Class> cache, Class eClass, TargetRuntime targetRuntime) {
+		CompositeKey key = new CompositeKey(targetRuntime, eClass);
+		Class composite = cache.get(key);
+		if (composite==null) {
+			composite = findCompositeClass(registry.get(targetRuntime),eClass);
+			if (composite==null && targetRuntime!=TargetRuntime.getDefaultRuntime()) {
+				// fall back to default target runtime
+				composite = findCompositeClass(registry.get(TargetRuntime.getDefaultRuntime()),eClass);
+			}
+			cache.put(key, composite==null ? NOT_FOUND : composite);
+		}
+		else if (composite==NOT_FOUND)
+			composite = null;
+		return composite;
+	}
+
 	private static Class findCompositeClass(Hashtable<Class,Class> map, Class eClass) {
 		if (map!=null) {
 			while (eClass!=null && eClass!=EObjectImpl.class) {
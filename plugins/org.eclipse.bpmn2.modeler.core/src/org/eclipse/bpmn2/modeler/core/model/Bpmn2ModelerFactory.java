@@ -14,7 +14,6 @@
 package org.eclipse.bpmn2.modeler.core.model;
 
 import java.util.Hashtable;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -153,14 +152,37 @@ public class Bpmn2ModelerFactory extends Bpmn2FactoryImpl {
 	// Allows the XML loader for a particular target runtime to temporarily disable
 	// model extensions. This prevents extensions being added multiple times by
 	// ModelExtensionDescriptor.populateObject() every time a file is loaded.
-	protected static boolean enableModelExtensions = true;
-	protected static Resource resource;
+	// Both this flag and the Resource being loaded are kept per thread so that
+	// object creation does not need to hold a global lock. Subclasses should
+	// use the static accessors for these.
+	private static ThreadLocal<Boolean> enableModelExtensions = new ThreadLocal<Boolean>() {
+		@Override
+		protected Boolean initialValue() {
+			return Boolean.TRUE;
+		}
+	};
+	private static ThreadLocal<Resource> resource = new ThreadLocal<Resource>();
 	private static ReentrantLock lock = new ReentrantLock();
 	
+	/**
+	 * Acquire a global lock. The factory itself no longer uses this lock,
+	 * because the Resource being loaded and the enableModelExtensions flag are
+	 * kept per thread; the lock only serializes clients that call
+	 * {@code lock()} and {@code unlock()} with each other.
+	 * 
+	 * @deprecated object creation does not need to be serialized
+	 */
+	@Deprecated
 	public static void lock() {
 		lock.lock();
 	}
 	
+	/**
+	 * Release the lock acquired by {@link #lock()}.
+	 * 
+	 * @deprecated object creation does not need to be serialized
+	 */
+	@Deprecated
 	public static void unlock() {
 		lock.unlock();
 	}
@@ -177,8 +199,9 @@ public class Bpmn2ModelerFactory extends Bpmn2FactoryImpl {
 
 	@Override
     public EObject create(EClass eClass) {
-		if (resource!=null) {
-			return create(resource, eClass);
+		Resource r = getResource();
+		if (r!=null) {
+			return create(r, eClass);
 		}
 		return super.create(eClass);
     }
@@ -209,11 +232,10 @@ public class Bpmn2ModelerFactory extends Bpmn2FactoryImpl {
 		Assert.isTrue(resource!=null);
 		
 		EObject object = null;
-		lock();
 		try {
     		String customElementId = null;
 			TargetRuntime rt = null;
-			boolean initializeObject = enableModelExtensions;
+			boolean initializeObject = getEnableModelExtensions();
 
 			if (args!=null) {
 				for (java.util.Map.Entry<String, Object> kv : args.entrySet()) {
@@ -254,19 +276,9 @@ public class Bpmn2ModelerFactory extends Bpmn2FactoryImpl {
     				ctd.populateObject(object, resource, initializeObject);
     		}
     		else {
-	    		List<ModelExtensionDescriptor> list = rt.getModelExtensionDescriptors();
-		    	for (ModelExtensionDescriptor med : list) {
-		    		if (className.equals(med.getType())) {
-		    			med.populateObject(object, resource, initializeObject);
-		    		}
-		    	}
-		    	// then check if there are any MEDs for any supertypes of this object type
-		    	for (ModelExtensionDescriptor med : list) {
-		    		for (EClass st : eClass.getEAllSuperTypes()) {
-			    		if (st.getName().equals(med.getType())) {
-			    			med.populateObject(object, resource, initializeObject);
-			    		}
-		    		}
+	    		// MEDs for this object type come first, followed by those for any of its supertypes
+		    	for (ModelExtensionDescriptor med : rt.getModelExtensionDescriptors(eClass)) {
+		    		med.populateObject(object, resource, initializeObject);
 		    	}
     		}
     		
@@ -295,18 +307,15 @@ public class Bpmn2ModelerFactory extends Bpmn2FactoryImpl {
 		catch (Exception e) {
 			e.printStackTrace();
 		}
-		finally {
-			unlock();
-		}
     	return object;
 	}
 	
     public static void setEnableModelExtensions(boolean enable) {
-    	enableModelExtensions = enable;
+    	enableModelExtensions.set(enable);
     }
 
     public static boolean getEnableModelExtensions() {
-    	return enableModelExtensions;
+    	return enableModelExtensions.get();
     }
 	
 	
@@ -362,8 +371,25 @@ public class Bpmn2ModelerFactory extends Bpmn2FactoryImpl {
 		return newObject;
 	}
 	
+	/**
+	 * @return the Resource that is being loaded on the current thread, or null.
+	 */
+	protected static Resource getResource() {
+		return resource.get();
+	}
+	
+	/**
+	 * Set the Resource that is being loaded on the current thread. Objects
+	 * that are created by {@link #create(EClass)} on this thread are
+	 * initialized for this Resource's Target Runtime.
+	 * 
+	 * @param r the Resource or null when loading is done.
+	 */
 	public static void setResource(Resource r) {
-		resource = r;
+		if (r==null)
+			resource.remove();
+		else
+			resource.set(r);
 	}
 	
 //	public static EObject createFeature(EObject object, EStructuralFeature feature) {
@@ -16,6 +16,7 @@ package org.eclipse.bpmn2.modeler.core.model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.bpmn2.BaseElement;
 import org.eclipse.bpmn2.Bpmn2Package;
@@ -89,6 +90,32 @@ public class ModelDecorator {
 	protected static ResourceSet resourceSet;
 	protected List<EPackage> relatedEPackages;
 	protected TargetRuntime targetRuntime;
+
+	// Lookup caches for EPackages, EClassifiers and EStructuralFeatures. These include
+	// negative results, so they are discarded whenever any ModelDecorator creates a new
+	// dynamic package, class or feature (i.e. whenever the model generation changes).
+	private static final Object NOT_FOUND = new Object();
+	private static volatile int modelGeneration;
+	private static volatile LookupCache<String, Object> ePackageCache = new LookupCache<String, Object>(0);
+	private volatile LookupCache<String, Object> eClassifierCache = new LookupCache<String, Object>(0);
+	private volatile LookupCache<EClass, ConcurrentHashMap<String, Object>> eStructuralFeatureCache =
+			new LookupCache<EClass, ConcurrentHashMap<String, Object>>(0);
+
+	/**
+	 * The lookup results for one model generation. A lookup records the
+	 * generation before it searches the model, and stores its result in the
+	 * cache for that generation only. If the model changes during the search,
+	 * the result goes into a cache that is already obsolete and is never
+	 * seen by later lookups.
+	 */
+	private static class LookupCache<K, V> {
+		final int generation;
+		final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<K, V>();
+
+		LookupCache(int generation) {
+			this.generation = generation;
+		}
+	}
 	
 	/**
 	 * Construct a new EPackage for extension classes and features, and add the given
@@ -146,9 +173,37 @@ public class ModelDecorator {
 					mda.dispose();
 				resourceSet.getPackageRegistry().remove(ePackage.getNsURI());
 				EcoreUtil.delete(ePackage);
+				modelChanged();
 			}
 		}
 	}
+
+	/**
+	 * Invalidate the lookup caches of all ModelDecorators. This must be called
+	 * whenever a dynamic EPackage, EClassifier or EStructuralFeature is created
+	 * or removed.
+	 */
+	private static synchronized void modelChanged() {
+		++modelGeneration;
+	}
+
+	private LookupCache<String, Object> getEClassifierCache(int generation) {
+		LookupCache<String, Object> cache = eClassifierCache;
+		if (cache.generation!=generation) {
+			cache = new LookupCache<String, Object>(generation);
+			eClassifierCache = cache;
+		}
+		return cache;
+	}
+
+	private LookupCache<EClass, ConcurrentHashMap<String, Object>> getEStructuralFeatureCache(int generation) {
+		LookupCache<EClass, ConcurrentHashMap<String, Object>> cache = eStructuralFeatureCache;
+		if (cache.generation!=generation) {
+			cache = new LookupCache<EClass, ConcurrentHashMap<String, Object>>(generation);
+			eStructuralFeatureCache = cache;
+		}
+		return cache;
+	}
 	
 	/**
 	 * Construct a private ResourceSet that will contain our dynamic EPackage.
@@ -196,6 +251,21 @@ public class ModelDecorator {
 		if (nsURI==null)
 			return null;
 		
+		int generation = modelGeneration;
+		LookupCache<String, Object> cache = ePackageCache;
+		if (cache.generation!=generation) {
+			cache = new LookupCache<String, Object>(generation);
+			ePackageCache = cache;
+		}
+		Object cached = cache.map.get(nsURI);
+		if (cached==null) {
+			cached = findEPackage(nsURI);
+			cache.map.put(nsURI, cached==null ? NOT_FOUND : cached);
+		}
+		return cached==NOT_FOUND ? null : (EPackage) cached;
+	}
+
+	private static EPackage findEPackage(String nsURI) {
 		EPackage pkg = (EPackage) getResourceSet().getPackageRegistry().get(nsURI);
 		if (pkg!=null)
 			return pkg;
@@ -241,8 +311,10 @@ public class ModelDecorator {
 	 * @param pkg
 	 */
 	public void addRelatedEPackage(EPackage pkg) {
-		if (pkg!=ePackage && !getRelatedEPackages().contains(pkg))
+		if (pkg!=ePackage && !getRelatedEPackages().contains(pkg)) {
 			getRelatedEPackages().add(pkg);
+			modelChanged();
+		}
 	}
 	
 	/**
@@ -275,6 +347,7 @@ public class ModelDecorator {
 		getResourceSet();
 		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("*", new XMLResourceFactoryImpl()); //$NON-NLS-1$
 		resourceSet.getPackageRegistry().put(nsURI, ePackage);
+		modelChanged();
 
 		return ePackage;
 	}
@@ -384,6 +457,7 @@ public class ModelDecorator {
 
 		eClassifier.setName(getType(type));
 		ePackage.getEClassifiers().add(eClassifier);
+		modelChanged();
 
 		return eClassifier;
 	}
@@ -469,6 +543,7 @@ public class ModelDecorator {
 			eDataType.setInstanceClass(value.getClass());
 		}
 		eDataType.getEAnnotations().add(ea);
+		modelChanged();
 
 		return eDataType;
 	}
@@ -515,6 +590,7 @@ public class ModelDecorator {
 		// to the containing object's "anyType" feature.
 		ExtendedMetaData.INSTANCE.setName(eClass, ""); //$NON-NLS-1$
 		eClass.setInstanceClass(instanceClass);
+		modelChanged();
 
 		return eClass;
 	}
@@ -536,8 +612,25 @@ public class ModelDecorator {
 		if (object instanceof ExtensionAttributeValue) {
 			object = object.eContainer();
 		}
-		String type = object.eClass().getName();
-		eClass = getEClass(type);
+		eClass = object.eClass();
+		LookupCache<EClass, ConcurrentHashMap<String, Object>> cache = getEStructuralFeatureCache(modelGeneration);
+		ConcurrentHashMap<String, Object> features = cache.map.get(eClass);
+		if (features==null) {
+			features = new ConcurrentHashMap<String, Object>();
+			ConcurrentHashMap<String, Object> other = cache.map.putIfAbsent(eClass, features);
+			if (other!=null)
+				features = other;
+		}
+		Object cached = features.get(name);
+		if (cached==null) {
+			cached = findEStructuralFeature(eClass.getName(), name);
+			features.put(name, cached==null ? NOT_FOUND : cached);
+		}
+		return cached==NOT_FOUND ? null : (EStructuralFeature) cached;
+	}
+
+	private EStructuralFeature findEStructuralFeature(String type, String name) {
+		EClass eClass = getEClass(type);
 		if (eClass!=null) {
 			for (EStructuralFeature feature : eClass.getEAllStructuralFeatures()) {
 				if (name.equals(feature.getName()))
@@ -645,6 +738,7 @@ public class ModelDecorator {
 		ExtendedMetaData.INSTANCE.setNamespace(eAttribute, ePackage.getNsURI());
 		ExtendedMetaData.INSTANCE.setFeatureKind(eAttribute, ExtendedMetaData.ATTRIBUTE_FEATURE);
 		ExtendedMetaData.INSTANCE.setName(eAttribute, name);
+		modelChanged();
 		
 		if (eClassifier instanceof EEnum) {
 			if (defaultValue!=null) {
@@ -783,6 +877,7 @@ public class ModelDecorator {
 		ExtendedMetaData.INSTANCE.setNamespace(eReference, ePackage.getNsURI());
 		ExtendedMetaData.INSTANCE.setFeatureKind(eReference, ExtendedMetaData.ELEMENT_FEATURE);
 		ExtendedMetaData.INSTANCE.setName(eReference, name);
+		modelChanged();
 
 		return eReference;
 	}
@@ -872,6 +967,16 @@ public class ModelDecorator {
 			return null;
 			
 		type = getType(type);
+		LookupCache<String, Object> cache = getEClassifierCache(modelGeneration);
+		Object cached = cache.map.get(type);
+		if (cached==null) {
+			cached = findEClassifierUncached(type);
+			cache.map.put(type, cached==null ? NOT_FOUND : cached);
+		}
+		return cached==NOT_FOUND ? null : (EClassifier) cached;
+	}
+
+	private EClassifier findEClassifierUncached(String type) {
 		EClassifier eClassifier = null;
 		
 		if (ePackage!=null) {
@@ -1104,7 +1209,7 @@ public class ModelDecorator {
 		EClass eclass;
 		if (object instanceof EClass) {
 			eclass = (EClass)object;
-			object = ExtendedPropertiesAdapter.getDummyObject(eclass);
+			object = ExtendedPropertiesAdapter.createDummyObject(eclass);
 		}
 		else
 			eclass = object.eClass();
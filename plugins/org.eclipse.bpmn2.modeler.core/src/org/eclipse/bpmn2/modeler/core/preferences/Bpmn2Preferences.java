@@ -20,6 +20,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.bpmn2.Activity;
 import org.eclipse.bpmn2.AdHocSubProcess;
@@ -162,6 +164,9 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	
 	private static Hashtable<IProject,Bpmn2Preferences> projectPreferenceCacheMap = null;
 	private static Bpmn2Preferences instancePreferenceCache = null;
+	// the projects that contain EMF Resources, remembered for as long as the Resource exists
+	private static final Map<Resource, ResourceProject> resourceProjectCache =
+			Collections.synchronizedMap(new WeakHashMap<Resource, ResourceProject>());
 	private static IProject activeProject;
 	private static ListenerList preferenceChangeListeners;
 	private static IPreferenceStore preferenceStore;
@@ -204,6 +209,46 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 
 	private HashMap<String, ShapeStyle> shapeStyles = new HashMap<String, ShapeStyle>();
 
+	// the ShapeStyle names of EClasses, and the ShapeStyle preference keys
+	// for each Target Runtime and EClass; neither of these ever change
+	private static final String NOT_FOUND = new String();
+	private static final ConcurrentHashMap<EClass, String> shapeStyleNames = new ConcurrentHashMap<EClass, String>();
+	private static final ConcurrentHashMap<ShapeStyleIdKey, String> shapeStyleIds = new ConcurrentHashMap<ShapeStyleIdKey, String>();
+
+	private static final class ResourceProject {
+		final URI uri;
+		final IProject project;
+
+		ResourceProject(URI uri, IProject project) {
+			this.uri = uri;
+			this.project = project;
+		}
+	}
+
+	private static final class ShapeStyleIdKey {
+		final TargetRuntime rt;
+		final EClass eClass;
+
+		ShapeStyleIdKey(TargetRuntime rt, EClass eClass) {
+			this.rt = rt;
+			this.eClass = eClass;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof ShapeStyleIdKey) {
+				ShapeStyleIdKey other = (ShapeStyleIdKey) obj;
+				return rt==other.rt && eClass==other.eClass;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(rt) + System.identityHashCode(eClass);
+		}
+	}
+
 	private Bpmn2Preferences(IProject project) {
 		this.project = project;
 		
@@ -258,8 +303,21 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	}
 	
 	public static Bpmn2Preferences getInstance(Resource resource) {
-		if (resource!=null)
-			return getInstance(resource.getURI());
+		if (resource!=null) {
+			URI uri = resource.getURI();
+			ResourceProject rp = resourceProjectCache.get(resource);
+			// the Resource may have been renamed or moved
+			if (rp!=null && rp.uri.equals(uri))
+				return getInstance(rp.project);
+			if (uri!=null) {
+				IProject project = findProject(uri);
+				if (project!=null) {
+					resourceProjectCache.put(resource, new ResourceProject(uri, project));
+					return getInstance(project);
+				}
+			}
+			return getInstance(uri);
+		}
 		return getInstance();
 	}
 	
@@ -271,21 +329,28 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	 * @return project preferences
 	 */
 	public static Bpmn2Preferences getInstance(URI resourceURI) {
+		IProject project = findProject(resourceURI);
+		if (project==null) {
+			return getInstance();
+		}
+		return getInstance(project);
+			
+	}
+	
+	private static IProject findProject(URI resourceURI) {
 		String filename = resourceURI.trimFragment().toPlatformString(true);
 		if (filename==null) {
-			return getInstance();
+			return null;
 		}
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 		if (root==null) {
-			return getInstance();
+			return null;
 		}
-		IResource res = ResourcesPlugin.getWorkspace().getRoot().findMember(filename);
+		IResource res = root.findMember(filename);
 		if (res==null) {
-			return getInstance();
+			return null;
 		}
-		IProject project = res.getProject();
-		return getInstance(project);
-			
+		return res.getProject();
 	}
 	
 	/**
@@ -342,8 +407,17 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	}
 	
 	public void dispose() {
-		if (project!=null)
+		if (project!=null) {
 			projectPreferenceCacheMap.remove(project);
+			// forget the Resources contained in this project
+			synchronized (resourceProjectCache) {
+				Iterator<ResourceProject> iter = resourceProjectCache.values().iterator();
+				while (iter.hasNext()) {
+					if (iter.next().project.equals(project))
+						iter.remove();
+				}
+			}
+		}
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
 		preferenceStore.removePropertyChangeListener(this);
 	}
@@ -610,12 +684,35 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	}
 	
 	public static String getShapeStyleId(TargetRuntime rt, EObject object) {
-		try {
-			Class clazz = Class.forName(object.eClass().getInstanceClassName());
-			return getShapeStyleKey(rt, clazz);
-		} catch (ClassNotFoundException e) {
-			return getShapeStyleKey(rt, object.getClass());
+		ShapeStyleIdKey key = new ShapeStyleIdKey(rt, object.eClass());
+		String id = shapeStyleIds.get(key);
+		if (id==null) {
+			String name = getShapeStyleName(object.eClass());
+			if (name==NOT_FOUND)
+				return getShapeStyleKey(rt, object.getClass());
+			id = getShapeStyleKey(rt, name);
+			shapeStyleIds.put(key, id);
 		}
+		return id;
+	}
+
+	/**
+	 * Returns the simple name of the Java interface for the given EClass.
+	 * 
+	 * @param eClass
+	 * @return the interface name, or NOT_FOUND if the interface can not be loaded
+	 */
+	private static String getShapeStyleName(EClass eClass) {
+		String name = shapeStyleNames.get(eClass);
+		if (name==null) {
+			try {
+				name = Class.forName(eClass.getInstanceClassName()).getSimpleName();
+			} catch (ClassNotFoundException e) {
+				name = NOT_FOUND;
+			}
+			shapeStyleNames.put(eClass, name);
+		}
+		return name;
 	}
 	
 	public static String getShapeStyleKey(TargetRuntime rt, Class clazz) {
@@ -640,12 +737,11 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	}
 
 	public ShapeStyle getShapeStyle(EObject object) {
-		Class clazz;
 		try {
-			clazz = Class.forName(object.eClass().getInstanceClassName());
-			return getShapeStyle(clazz);
-		} catch (ClassNotFoundException e) {
-			return getShapeStyle(object.getClass());
+			String name = getShapeStyleName(object.eClass());
+			if (name==NOT_FOUND)
+				return getShapeStyle(object.getClass());
+			return getShapeStyle(name);
 		}
 		catch (Exception e2) {
 		}
@@ -706,13 +802,11 @@ public class Bpmn2Preferences implements IResourceChangeListener, IPropertyChang
 	}
 
 	public void setShapeStyle(EObject object, ShapeStyle ss) {
-		Class clazz;
-		try {
-			clazz = Class.forName(object.eClass().getInstanceClassName());
-			setShapeStyle(clazz, ss);
-		} catch (ClassNotFoundException e) {
+		String name = getShapeStyleName(object.eClass());
+		if (name==NOT_FOUND)
 			setShapeStyle(object.getClass(), ss);
-		}
+		else
+			setShapeStyle(name, ss);
 	}
 	
 	public void setShapeStyle(Class clazz, ShapeStyle style) {
@@ -11,11 +11,11 @@
 package org.eclipse.bpmn2.modeler.core.preferences;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.bpmn2.Bpmn2Package;
 import org.eclipse.bpmn2.di.BpmnDiPackage;
@@ -34,8 +34,96 @@ import org.eclipse.graphiti.features.IFeature;
 
 public class ModelEnablements {
 	
-	// Map of enabled EClasses and their enabled Features
-	private Hashtable<String, HashSet<String>> classes = new Hashtable<String, HashSet<String>>();
+	/**
+	 * A dense integer id for an EClass name. Each feature name that is enabled
+	 * for the class is also given an id, from a sequence that is shared by all
+	 * classes. The ids are shared by all ModelEnablements instances, so that
+	 * the enabled classes and features can be kept in BitSets.
+	 */
+	private static class ClassId {
+		private static final ConcurrentHashMap<String, ClassId> classIds = new ConcurrentHashMap<String, ClassId>();
+		// indexed by class id and by feature id; guarded by ClassId.class
+		private static final List<ClassId> classes = new ArrayList<ClassId>();
+		private static final List<String> featureNames = new ArrayList<String>();
+
+		final int id;
+		final String name;
+		final ConcurrentHashMap<String, Integer> featureIds = new ConcurrentHashMap<String, Integer>();
+		// ids of this class's features, in the order they were registered;
+		// guarded by ClassId.class
+		private int[] features = new int[0];
+
+		private ClassId(int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		/**
+		 * @return the id of the given class name, or null if it has never
+		 * been enabled in any ModelEnablements.
+		 */
+		static ClassId find(String className) {
+			return classIds.get(className);
+		}
+
+		static synchronized ClassId get(String className) {
+			ClassId c = classIds.get(className);
+			if (c==null) {
+				c = new ClassId(classes.size(), className);
+				classes.add(c);
+				classIds.put(className, c);
+			}
+			return c;
+		}
+
+		static synchronized ClassId get(int id) {
+			return classes.get(id);
+		}
+
+		static synchronized String getFeatureName(int featureId) {
+			return featureNames.get(featureId);
+		}
+
+		/**
+		 * @return the id of the given feature of this class, or -1 if it has
+		 * never been enabled in any ModelEnablements.
+		 */
+		int findFeature(String featureName) {
+			Integer fid = featureIds.get(featureName);
+			return fid==null ? -1 : fid.intValue();
+		}
+
+		int getFeature(String featureName) {
+			Integer fid = featureIds.get(featureName);
+			if (fid==null) {
+				synchronized (ClassId.class) {
+					fid = featureIds.get(featureName);
+					if (fid==null) {
+						fid = Integer.valueOf(featureNames.size());
+						featureNames.add(featureName);
+						features = Arrays.copyOf(features, features.length + 1);
+						features[features.length - 1] = fid.intValue();
+						featureIds.put(featureName, fid);
+					}
+				}
+			}
+			return fid.intValue();
+		}
+
+		int[] getFeatures() {
+			synchronized (ClassId.class) {
+				return features;
+			}
+		}
+	}
+
+	// the ids of the enabled EClasses and their enabled Features
+	private BitSet classes = new BitSet();
+	private BitSet features = new BitSet();
+	// the number of enabled features of each enabled class, indexed by class id
+	private int[] featureCounts = new int[0];
+	// incremented whenever any class or feature is enabled or disabled
+	private int modificationCount;
 	private TargetRuntime targetRuntime = null;
 	private String id = ""; //$NON-NLS-1$
 	private int enableIdAttribute = -1;
@@ -58,9 +146,104 @@ public class ModelEnablements {
 		return enableIdAttribute == 1;
 	}
 	
+	/**
+	 * @return the id of the given class if it is enabled, or null if not.
+	 */
+	private ClassId getEnabledClass(String className) {
+		ClassId c = ClassId.find(className);
+		if (c!=null && classes.get(c.id))
+			return c;
+		return null;
+	}
+	
+	private ClassId addClass(String className) {
+		ClassId c = ClassId.get(className);
+		if (!classes.get(c.id)) {
+			classes.set(c.id);
+			++modificationCount;
+		}
+		return c;
+	}
+	
+	private void removeClass(ClassId c) {
+		clearFeatures(c);
+		if (classes.get(c.id)) {
+			classes.clear(c.id);
+			++modificationCount;
+		}
+	}
+	
+	private void clearAll() {
+		classes.clear();
+		features.clear();
+		Arrays.fill(featureCounts, 0);
+		++modificationCount;
+	}
+	
+	private int getFeatureCount(ClassId c) {
+		return c.id < featureCounts.length ? featureCounts[c.id] : 0;
+	}
+	
+	private boolean hasFeature(ClassId c, String featureName) {
+		int fid = c.findFeature(featureName);
+		return fid>=0 && features.get(fid);
+	}
+	
+	private void addFeature(ClassId c, String featureName) {
+		int fid = c.getFeature(featureName);
+		if (!features.get(fid)) {
+			features.set(fid);
+			if (c.id >= featureCounts.length)
+				featureCounts = Arrays.copyOf(featureCounts, Math.max(c.id + 1, 2 * featureCounts.length));
+			++featureCounts[c.id];
+			++modificationCount;
+		}
+	}
+	
+	private void removeFeature(ClassId c, String featureName) {
+		int fid = c.findFeature(featureName);
+		if (fid>=0 && features.get(fid)) {
+			features.clear(fid);
+			--featureCounts[c.id];
+			++modificationCount;
+		}
+	}
+	
+	private void removeFeatures(ClassId c, Collection<String> featureNames) {
+		for (String featureName : featureNames)
+			removeFeature(c, featureName);
+	}
+	
+	private void clearFeatures(ClassId c) {
+		if (getFeatureCount(c)>0) {
+			for (int fid : c.getFeatures())
+				features.clear(fid);
+			featureCounts[c.id] = 0;
+			++modificationCount;
+		}
+	}
+	
+	private List<String> getFeatureNames(ClassId c) {
+		List<String> list = new ArrayList<String>();
+		if (getFeatureCount(c)>0) {
+			for (int fid : c.getFeatures()) {
+				if (features.get(fid))
+					list.add(ClassId.getFeatureName(fid));
+			}
+		}
+		return list;
+	}
+	
+	private List<ClassId> getEnabledClasses() {
+		List<ClassId> list = new ArrayList<ClassId>(classes.cardinality());
+		for (int id = classes.nextSetBit(0); id >= 0; id = classes.nextSetBit(id + 1))
+			list.add(ClassId.get(id));
+		return list;
+	}
+	
 	public void setEnabledAll(boolean enabled) {
 		if (enabled) {
-			classes.clear();
+			clearAll();
 			final List<EClass> items = new ArrayList<EClass>();
 			for (EClassifier eclassifier : Bpmn2Package.eINSTANCE.getEClassifiers() ) {
 				if (eclassifier instanceof EClass) {
@@ -91,19 +274,15 @@ public class ModelEnablements {
 //			setEnabled(i.getConversation(), true);
 		}
 		else {
-			classes.clear();
+			clearAll();
 		}
 	}
 	
 	public void copy(ModelEnablements me) {
-		classes.clear();
-		
-		for (Entry<String, HashSet<String>> entry : me.classes.entrySet()) {
-			String className = entry.getKey();
-			HashSet<String> features = new HashSet<String>();
-			features.addAll(entry.getValue());
-			classes.put(className, features);
-		}
+		classes = (BitSet) me.classes.clone();
+		features = (BitSet) me.features.clone();
+		featureCounts = me.featureCounts.clone();
+		++modificationCount;
 	}
 	
 	private void setEnabled(List<EClass> eClasses, boolean enabled) {
@@ -123,7 +302,7 @@ public class ModelEnablements {
 	public void setEnabled(EClass eClass, boolean enabled) {
 		if (isValid(eClass)) {
 			if (enabled) {
-				if (!classes.containsKey(eClass.getName()))
+				if (getEnabledClass(eClass.getName())==null)
 					setEnabled(eClass.getName(), true);
 			}
 			else {
@@ -172,15 +351,15 @@ public class ModelEnablements {
 	
 	private void setEnabledSingle(String className, boolean enabled) {
 		if (enabled) {
-			if (classes.containsKey(className))
+			if (getEnabledClass(className)!=null)
 				return;
-			HashSet<String> features = new HashSet<String>();
-			classes.put(className, features);
+			addClass(className);
 		}
 		else {
-			if (!classes.containsKey(className))
+			ClassId c = getEnabledClass(className);
+			if (c==null)
 				return;
-			classes.remove(className);
+			removeClass(c);
 		}
 	}
 	
@@ -205,17 +384,17 @@ public class ModelEnablements {
 		if (enabled) {
 			// and enable all of its contained and referenced types
 			if (eClass!=null) {
-				HashSet<String> features = classes.get(name);
-				if (features.isEmpty()) {
+				ClassId c = getEnabledClass(name);
+				if (getFeatureCount(c)==0) {
 					for (EAttribute a : eClass.getEAllAttributes()) {
-						features.add(a.getName());
+						addFeature(c, a.getName());
 					}
 					for (EReference a : eClass.getEAllContainments()) {
-						features.add(a.getName());
+						addFeature(c, a.getName());
 //						setEnabledSingle(a.getEReferenceType(), true);
 					}
 					for (EReference a : eClass.getEAllReferences()) {
-						features.add(a.getName());
+						addFeature(c, a.getName());
 //						setEnabledSingle(a.getEReferenceType(), true);
 					}
 				}
@@ -225,11 +404,9 @@ public class ModelEnablements {
 			// remove any reference or containment list features
 			// of this type for other elements 
 			List<String> removed = new ArrayList<String>();
-			for (Entry<String, HashSet<String>> entry : classes.entrySet()) {
-				EClass ec = getEClass(entry.getKey());
+			for (ClassId c : getEnabledClasses()) {
+				EClass ec = getEClass(c.name);
 				if (ec!=null) {
-					HashSet<String> features = entry.getValue();
-	
 					for (EReference a : ec.getEAllContainments()) {
 						// if this feature is a reference to the
 						// class being disabled, remove it
@@ -240,7 +417,7 @@ public class ModelEnablements {
 						if (a.getEReferenceType() == eClass)
 							removed.add(a.getName());
 					}
-					features.removeAll(removed);
+					removeFeatures(c, removed);
 				}
 			}
 		}
@@ -262,18 +439,17 @@ public class ModelEnablements {
 		
 		if (enabled) {
 			// and enable all of its contained and referenced types
-			if (eClass!=null) {
-				HashSet<String> features = classes.get(eClass.getName());
-				
+			ClassId c = eClass==null ? null : getEnabledClass(eClass.getName());
+			if (c!=null) {
 				for (EAttribute a : eClass.getEAllAttributes()) {
-					features.add(a.getName());
+					addFeature(c, a.getName());
 				}
 				for (EReference a : eClass.getEAllContainments()) {
-					features.add(a.getName());
+					addFeature(c, a.getName());
 					setEnabledSingle(a.getEReferenceType(), true);
 				}
 				for (EReference a : eClass.getEAllReferences()) {
-					features.add(a.getName());
+					addFeature(c, a.getName());
 					setEnabledSingle(a.getEReferenceType(), true);
 				}
 			}
@@ -282,11 +458,9 @@ public class ModelEnablements {
 			// remove any reference or containment list features
 			// of this type for other elements 
 			List<String> removed = new ArrayList<String>();
-			for (Entry<String, HashSet<String>> entry : classes.entrySet()) {
-				EClass ec = getEClass(entry.getKey());
+			for (ClassId c : getEnabledClasses()) {
+				EClass ec = getEClass(c.name);
 				if (ec!=null) {
-					HashSet<String> features = entry.getValue();
-	
 					for (EReference a : ec.getEAllContainments()) {
 						// if this feature is a reference to the
 						// class being disabled, remove it
@@ -297,7 +471,7 @@ public class ModelEnablements {
 						if (a.getEReferenceType() == eClass)
 							removed.add(a.getName());
 					}
-					features.removeAll(removed);
+					removeFeatures(c, removed);
 				}
 			}
 		}
@@ -310,12 +484,11 @@ public class ModelEnablements {
 				setEnabledAll(enabled);
 			else {
 				// enable feature for all classes
-				for (Entry<String, HashSet<String>> entry : classes.entrySet()) {
-					HashSet<String> features = entry.getValue();
+				for (ClassId c : getEnabledClasses()) {
 					if (enabled)
-						features.add(featureName);
+						addFeature(c, featureName);
 					else
-						features.remove(featureName);
+						removeFeature(c, featureName);
 				}
 			}
 		}
@@ -326,25 +499,23 @@ public class ModelEnablements {
 				}
 				else
 				{
-					if (classes.containsKey(className)) {
-						classes.get(className).clear();
+					ClassId c = getEnabledClass(className);
+					if (c!=null) {
+						clearFeatures(c);
 					}
 				}
 			}
 			else if (enabled) {
-				HashSet<String> features;
-				if (classes.containsKey(className)) {
-					features = classes.get(className);
-				}
-				else {
-					features = new HashSet<String>();
-					classes.put(className, features);
+				ClassId c = getEnabledClass(className);
+				if (c==null) {
+					c = addClass(className);
 				}
-				features.add(featureName);
+				addFeature(c, featureName);
 			}
 			else {
-				if (classes.containsKey(className)) {
-					classes.get(className).remove(featureName);
+				ClassId c = getEnabledClass(className);
+				if (c!=null) {
+					removeFeature(c, featureName);
 				}
 			}
 		}
@@ -368,26 +539,25 @@ public class ModelEnablements {
 
 		if (className==null)
 			return true;
-		if (classes.containsKey(className)) { // && isOverride()) {
+		ClassId c = getEnabledClass(className);
+		if (c!=null) { // && isOverride()) {
 			if (featureName!=null && !featureName.isEmpty()) {
 				// the "anyAttribute" FeatureMap should always be enabled,
 				// although the features contained in the map may not be
 				if ("anyAttribute".equals(featureName)) //$NON-NLS-1$
 					return true;
 				
-				HashSet<String> features = classes.get(className);
-				if (features.contains(featureName) || features.isEmpty())
+				if (hasFeature(c, featureName) || getFeatureCount(c)==0)
 					return true;
 				
 				// check all supertypes of the requested EClass
 				EClass eClass = getEClass(className);
 				if (eClass!=null) {
 					for (EClass st : eClass.getEAllSuperTypes()) {
-						String cn = st.getName();
-						if (classes.containsKey(cn)) { // && isOverride()) {
+						ClassId sc = getEnabledClass(st.getName());
+						if (sc!=null) { // && isOverride()) {
 							if (featureName!=null && !featureName.isEmpty()) {
-								features = classes.get(cn);
-								if (features.contains(featureName))
+								if (hasFeature(sc, featureName))
 									return true;
 								break;
 							}
@@ -434,17 +604,28 @@ public class ModelEnablements {
 		return false;
 	}
 	
+	/**
+	 * Returns a counter that is incremented whenever a class or feature is
+	 * enabled or disabled. Clients that cache information derived from the
+	 * enablements (e.g. the tool palette) can compare this with a previously
+	 * saved value to determine if the enablements have changed.
+	 * 
+	 * @return the modification count
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
 	public int size() {
-		return classes.size();
+		return classes.cardinality();
 	}
 	
 	public List<String> getAllEnabled() {
 		ArrayList<String> list = new ArrayList<String>();
-		for (Entry<String, HashSet<String>> entry : classes.entrySet()) {
-			String className = entry.getKey();
+		for (ClassId c : getEnabledClasses()) {
+			String className = c.name;
 			list.add(className);
-			HashSet<String> features = entry.getValue();
-			for (String featureName : features) {
+			for (String featureName : getFeatureNames(c)) {
 				list.add(className + "." + featureName); //$NON-NLS-1$
 			}
 		}
@@ -453,16 +634,16 @@ public class ModelEnablements {
 	
 	public Collection<String> getAllEnabledClasses() {
 		ArrayList<String> list = new ArrayList<String>();
-		for (Entry<String, HashSet<String>> entry : classes.entrySet()) {
-			String className = entry.getKey();
-			list.add(className);
+		for (ClassId c : getEnabledClasses()) {
+			list.add(c.name);
 		}
 		return list;
 	}
 	
 	public Collection<String> getAllEnabledFeatures(String className) {
-		if (classes.containsKey(className))
-			return classes.get(className);
+		ClassId c = getEnabledClass(className);
+		if (c!=null)
+			return getFeatureNames(c);
 		return new ArrayList<String>();
 	}
 	
@@ -13,6 +13,9 @@
 
 package org.eclipse.bpmn2.modeler.core.preferences;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.bpmn2.BaseElement;
 import org.eclipse.bpmn2.di.BPMNLabelStyle;
 import org.eclipse.bpmn2.modeler.core.adapters.ExtendedPropertiesAdapter;
@@ -39,7 +42,6 @@ import org.eclipse.graphiti.mm.algorithms.styles.StylesPackage;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.services.Graphiti;
 import org.eclipse.graphiti.util.ColorConstant;
-import org.eclipse.graphiti.util.ColorUtil;
 import org.eclipse.graphiti.util.IColorConstant;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.FontData;
@@ -87,6 +89,10 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	private final static String DEFAULT_BACKGROUND = "FFFFFF"; //$NON-NLS-1$
 	private final static String DEFAULT_FOREGROUND = "000000"; //$NON-NLS-1$
 	
+	// ColorConstants are immutable, so a single instance is shared for each
+	// RGB value, indexed by the packed RGB value
+	private final static ConcurrentHashMap<Integer, IColorConstant> colors = new ConcurrentHashMap<Integer, IColorConstant>();
+	
 	String object;
 	IColorConstant shapeBackground;
 	IColorConstant shapePrimarySelectedColor;
@@ -220,59 +226,53 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	}
 
 	public ShapeStyle(ShapeStyle other) {
-		this(encode(other));
+		// copy field by field instead of going through encode()/decode()
+		shapeBackground = other.shapeBackground;
+		shapePrimarySelectedColor = other.shapePrimarySelectedColor;
+		shapeSecondarySelectedColor = other.shapeSecondarySelectedColor;
+		shapeForeground = other.shapeForeground;
+		labelFont = copyFont(other.labelFont);
+		labelForeground = other.labelForeground;
+		labelBackground = other.labelBackground;
+		routingStyle = other.routingStyle;
+		useDefaultSize = other.useDefaultSize;
+		defaultWidth = other.defaultWidth;
+		defaultHeight = other.defaultHeight;
+		labelPosition = other.labelPosition;
 		this.object = other.object;
 		this.targetRuntime = other.targetRuntime;
 	}
 	
-	private ShapeStyle(String s) {
-		String[] a = s.trim().split(";"); //$NON-NLS-1$
-		if (a.length>0)
-			shapeBackground = stringToColor(a[0]);
-		if (a.length>1)
-			shapePrimarySelectedColor = stringToColor(a[1]);
-		if (a.length>2)
-			shapeSecondarySelectedColor = stringToColor(a[2]);
-		if (a.length>3)
-			shapeForeground = stringToColor(a[3]);
-		if (a.length>4)
-			labelFont = stringToFont(a[4]);
-		if (a.length>5)
-			labelForeground = stringToColor(a[5]);
-		if (a.length>6)
-			labelBackground = stringToColor(a[6]);
-		if (a.length>7) {
-			try {
-				routingStyle = RoutingStyle.values()[Integer.parseInt(a[7])];
-			}
-			catch (Exception e) {
-				routingStyle = RoutingStyle.MANUAL;
-			}
+	/**
+	 * Construct a ShapeStyle from an encoded string. The string is scanned only
+	 * once: the offsets of the field separators are passed in by
+	 * {@link #decode(String)}, and each field is parsed in place.
+	 * 
+	 * @param s the trimmed encoded string
+	 * @param sep the end offset of each field in s, i.e. the offset of the
+	 *            ';' that follows it or the length of s for the last field
+	 * @param count the number of fields, not counting trailing empty fields
+	 */
+	private ShapeStyle(String s, int[] sep, int count) {
+		shapeBackground = stringToColor(s, fieldStart(sep, 0), sep[0]);
+		shapePrimarySelectedColor = stringToColor(s, fieldStart(sep, 1), sep[1]);
+		shapeSecondarySelectedColor = stringToColor(s, fieldStart(sep, 2), sep[2]);
+		shapeForeground = stringToColor(s, fieldStart(sep, 3), sep[3]);
+		labelFont = stringToFont(s, fieldStart(sep, 4), sep[4]);
+		labelForeground = stringToColor(s, fieldStart(sep, 5), sep[5]);
+		labelBackground = stringToColor(s, fieldStart(sep, 6), sep[6]);
+		try {
+			routingStyle = RoutingStyle.values()[parseInt(s, fieldStart(sep, 7), sep[7])];
 		}
-		else
+		catch (Exception e) {
 			routingStyle = RoutingStyle.MANUAL;
-		
-		if (a.length>8) {
-			useDefaultSize = stringToBoolean(a[8]);
-		}
-		else
-			useDefaultSize = false;
-		
-		if (a.length>9) {
-			defaultWidth = Integer.parseInt(a[9]);
-		}
-		else
-			defaultWidth = 110;
-		
-		if (a.length>10) {
-			defaultHeight= Integer.parseInt(a[10]);
-		}
-		else
-			defaultHeight = 50;
-		
-		if (a.length>11) {
-			labelPosition = LabelPosition.values()[Integer.parseInt(a[11])];
 		}
+		int start = fieldStart(sep, 8);
+		useDefaultSize = sep[8] - start == 1 && s.charAt(start) == '1';
+		defaultWidth = parseInt(s, fieldStart(sep, 9), sep[9]);
+		defaultHeight = parseInt(s, fieldStart(sep, 10), sep[10]);
+		if (count>11)
+			labelPosition = LabelPosition.values()[parseInt(s, fieldStart(sep, 11), sep[11])];
 		else
 			labelPosition = LabelPosition.SOUTH;
 	}
@@ -498,21 +498,87 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 				);
 	}
 	
-	public static IColorConstant stringToColor(String s) {
-		if (s.contains(",")) { //$NON-NLS-1$
-			String[] a = s.split(","); //$NON-NLS-1$
-			int r = Integer.parseInt(a[0]);
-			int g = Integer.parseInt(a[1]);
-			int b = Integer.parseInt(a[2]);
+	/**
+	 * Return the shared color constant for the given RGB value. Color
+	 * constants are immutable, so there is no need to create a new one for
+	 * every ShapeStyle that uses the same color.
+	 * 
+	 * @param r the red component, 0-255
+	 * @param g the green component, 0-255
+	 * @param b the blue component, 0-255
+	 * @return the color constant
+	 */
+	public static IColorConstant getColor(int r, int g, int b) {
+		if ((r & ~0xFF) != 0 || (g & ~0xFF) != 0 || (b & ~0xFF) != 0)
 			return new ColorConstant(r, g, b);
+		Integer key = Integer.valueOf((r << 16) | (g << 8) | b);
+		IColorConstant c = colors.get(key);
+		if (c==null) {
+			c = new ColorConstant(r, g, b);
+			IColorConstant existing = colors.putIfAbsent(key, c);
+			if (existing!=null)
+				c = existing;
 		}
-		if (s.length()<6)
-			return new ColorConstant(0,0,0);
-		return new ColorConstant(
-				ColorUtil.getRedFromHex(s),
-				ColorUtil.getGreenFromHex(s),
-				ColorUtil.getBlueFromHex(s)
-				);
+		return c;
+	}
+	
+	public static IColorConstant stringToColor(String s) {
+		return stringToColor(s, 0, s.length());
+	}
+	
+	private static IColorConstant stringToColor(String s, int start, int end) {
+		int c1 = indexOf(s, ',', start, end);
+		if (c1>=0) {
+			// decimal "r,g,b"
+			int c2 = indexOf(s, ',', c1+1, end);
+			if (c2<0)
+				throw new NumberFormatException(s.substring(start, end));
+			int c3 = indexOf(s, ',', c2+1, end);
+			if (c3<0)
+				c3 = end;
+			return getColor(parseInt(s, start, c1), parseInt(s, c1+1, c2), parseInt(s, c2+1, c3));
+		}
+		if (end-start<6)
+			return getColor(0,0,0);
+		// hex "RRGGBB"
+		return getColor(parseHex(s, start), parseHex(s, start+2), parseHex(s, start+4));
+	}
+	
+	private static int indexOf(String s, char c, int start, int end) {
+		for (int i=start; i<end; ++i) {
+			if (s.charAt(i)==c)
+				return i;
+		}
+		return -1;
+	}
+	
+	private static int parseInt(String s, int start, int end) {
+		if (end-start>9 || end<=start)
+			return Integer.parseInt(s.substring(start, end));
+		int i = start;
+		boolean negative = false;
+		char c = s.charAt(i);
+		if (c=='-' || c=='+') {
+			negative = c=='-';
+			if (++i==end)
+				throw new NumberFormatException(s.substring(start, end));
+		}
+		int value = 0;
+		for (; i<end; ++i) {
+			int d = Character.digit(s.charAt(i), 10);
+			if (d<0)
+				throw new NumberFormatException(s.substring(start, end));
+			value = value * 10 + d;
+		}
+		return negative ? -value : value;
+	}
+	
+	private static int parseHex(String s, int start) {
+		int hi = Character.digit(s.charAt(start), 16);
+		int lo = Character.digit(s.charAt(start+1), 16);
+		if (hi<0 || lo<0)
+			throw new NumberFormatException(s.substring(start, start+2));
+		return (hi << 4) | lo;
 	}
 	
 	public static String booleanToString(boolean b) {
@@ -528,7 +594,7 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	}
 	
 	public static IColorConstant RGBToColor(RGB rgb) {
-		return new ColorConstant(rgb.red, rgb.green, rgb.blue);
+		return getColor(rgb.red, rgb.green, rgb.blue);
 	}
 
 	public static String fontToString(Font f) {
@@ -543,14 +609,40 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	}
 	
 	public static Font stringToFont(String s) {
-		String[] a = s.split(","); //$NON-NLS-1$
+		return stringToFont(s, 0, s.length());
+	}
+	
+	private static Font stringToFont(String s, int start, int end) {
+		// "name,size,I|-,B|-"
+		int c1 = indexOf(s, ',', start, end);
+		int c2 = c1<0 ? -1 : indexOf(s, ',', c1+1, end);
+		int c3 = c2<0 ? -1 : indexOf(s, ',', c2+1, end);
+		if (c3<0)
+			throw new IllegalArgumentException(s.substring(start, end));
+		int c4 = indexOf(s, ',', c3+1, end);
+		if (c4<0)
+			c4 = end;
+		return createFont(
+				s.substring(start, c1),
+				parseInt(s, c1+1, c2),
+				c3-c2==2 && s.charAt(c2+1)=='I',
+				c4-c3==2 && s.charAt(c3+1)=='B');
+	}
+	
+	private static Font createFont(String name, int size, boolean italic, boolean bold) {
 		Font f = StylesFactory.eINSTANCE.createFont();
-		f.eSet(StylesPackage.eINSTANCE.getFont_Name(), a[0]);
-		f.eSet(StylesPackage.eINSTANCE.getFont_Size(), Integer.valueOf(a[1]));
-		f.eSet(StylesPackage.eINSTANCE.getFont_Italic(), a[2].equals("I")); //$NON-NLS-1$
-		f.eSet(StylesPackage.eINSTANCE.getFont_Bold(), a[3].equals("B")); //$NON-NLS-1$
+		f.eSet(StylesPackage.eINSTANCE.getFont_Name(), name);
+		f.eSet(StylesPackage.eINSTANCE.getFont_Size(), Integer.valueOf(size));
+		f.eSet(StylesPackage.eINSTANCE.getFont_Italic(), italic);
+		f.eSet(StylesPackage.eINSTANCE.getFont_Bold(), bold);
 		return f;
 	}
+	
+	private static Font copyFont(Font f) {
+		if (f==null)
+			return null;
+		return createFont(f.getName(), f.getSize(), f.isItalic(), f.isBold());
+	}
 
 	public static FontData fontToFontData(Font f) {
 		int style = 0;
@@ -661,9 +753,30 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	}
 	
 	public static ShapeStyle decode(String s) {
-		if (s==null || s.trim().split(";").length<11) //$NON-NLS-1$
+		if (s==null)
 			return new ShapeStyle();
-		return new ShapeStyle(s);
+		s = s.trim();
+		// find the end of each field in a single pass
+		int[] sep = new int[12];
+		int count = 0;
+		int length = s.length();
+		for (int i=0; i<=length; ++i) {
+			if (i==length || s.charAt(i)==';') {
+				if (count==sep.length)
+					sep = Arrays.copyOf(sep, 2 * count);
+				sep[count++] = i;
+			}
+		}
+		// trailing empty fields are ignored, just like String.split() does
+		while (count>0 && sep[count-1]==fieldStart(sep, count-1))
+			--count;
+		if (count<11)
+			return new ShapeStyle();
+		return new ShapeStyle(s, sep, count);
+	}
+	
+	private static int fieldStart(int[] sep, int index) {
+		return index==0 ? 0 : sep[index-1] + 1;
 	}
 
 	public void applyChanges(ShapeStyle other) {
@@ -728,9 +841,31 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	}
 	
 	private static boolean equals(Font f1, Font f2) {
-		String s1 = fontToString(f1);
-		String s2 = fontToString(f2);
-		return s1.equals(s2);
+		if (f1==f2)
+			return true;
+		if (f1==null || f2==null)
+			return false;
+		String n1 = f1.getName();
+		String n2 = f2.getName();
+		return (n1==null ? n2==null : n1.equals(n2)) &&
+				f1.getSize() == f2.getSize() &&
+				f1.isItalic() == f2.isItalic() &&
+				f1.isBold() == f2.isBold();
+	}
+	
+	private static int hashCode(IColorConstant c) {
+		if (c==null)
+			return 0;
+		return (c.getRed() << 16) | (c.getGreen() << 8) | c.getBlue();
+	}
+	
+	private static int hashCode(Font f) {
+		if (f==null)
+			return 0;
+		int h = f.getName()==null ? 0 : f.getName().hashCode();
+		h = 31 * h + f.getSize();
+		h = 31 * h + (f.isItalic() ? 1 : 0);
+		return 31 * h + (f.isBold() ? 1 : 0);
 	}
 	
 	public static IColorConstant lighter(IColorConstant c) {
@@ -740,7 +875,7 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 		if (r>255) r = 255;
 		if (g>255) g = 255;
 		if (b>255) b = 255;
-		return new ColorConstant(r, g, b);
+		return getColor(r, g, b);
 	}
 	
 	public static IColorConstant darker(IColorConstant c) {
@@ -750,7 +885,7 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 		if (r<0) r = 0;
 		if (g<0) g = 0;
 		if (b<0) b = 0;
-		return new ColorConstant(r, g, b);
+		return getColor(r, g, b);
 	}
 
 	@Override
@@ -944,7 +1079,20 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 	@Override
 	public boolean equals(Object obj) {
 		if (obj instanceof ShapeStyle) {
-			return encode(this).equals(encode((ShapeStyle)obj));
+			// compare the same values that are written by encode(); the label
+			// background is not part of the encoded form
+			ShapeStyle other = (ShapeStyle) obj;
+			return equals(shapeBackground, other.shapeBackground) &&
+					equals(shapePrimarySelectedColor, other.shapePrimarySelectedColor) &&
+					equals(shapeSecondarySelectedColor, other.shapeSecondarySelectedColor) &&
+					equals(shapeForeground, other.shapeForeground) &&
+					equals(labelFont, other.labelFont) &&
+					equals(labelForeground, other.labelForeground) &&
+					routingStyle == other.routingStyle &&
+					useDefaultSize == other.useDefaultSize &&
+					defaultWidth == other.defaultWidth &&
+					defaultHeight == other.defaultHeight &&
+					labelPosition == other.labelPosition;
 		}
 		if (obj instanceof BPMNLabelStyle) {
 			BPMNLabelStyle ls = (BPMNLabelStyle) obj;
@@ -965,6 +1113,21 @@ public class ShapeStyle extends BaseRuntimeExtensionDescriptor {
 		return super.equals(obj);
 	}
 
+	@Override
+	public int hashCode() {
+		int h = hashCode(shapeBackground);
+		h = 31 * h + hashCode(shapePrimarySelectedColor);
+		h = 31 * h + hashCode(shapeSecondarySelectedColor);
+		h = 31 * h + hashCode(shapeForeground);
+		h = 31 * h + hashCode(labelFont);
+		h = 31 * h + hashCode(labelForeground);
+		h = 31 * h + (routingStyle==null ? 0 : routingStyle.ordinal());
+		h = 31 * h + (useDefaultSize ? 1 : 0);
+		h = 31 * h + defaultWidth;
+		h = 31 * h + defaultHeight;
+		return 31 * h + (labelPosition==null ? 0 : labelPosition.ordinal());
+	}
+
 	private static Enum fromEENumLiteral(EObject element, EEnumLiteral el) {
 		try {
 			LabelPosition.values();
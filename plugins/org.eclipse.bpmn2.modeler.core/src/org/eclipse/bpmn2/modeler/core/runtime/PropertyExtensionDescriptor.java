@@ -73,7 +73,8 @@ public class PropertyExtensionDescriptor extends BaseRuntimeExtensionDescriptor
 			EClass eclass = null;
 			if (object instanceof EClass) {
 				eclass = (EClass)object;
-				object = ExtendedPropertiesAdapter.getDummyObject(eclass);
+				// the dummy object is adapted for this Target Runtime
+				object = ExtendedPropertiesAdapter.createDummyObject(eclass);
 			}
 			else {
 				eclass = object.eClass();
@@ -18,11 +18,16 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.bpmn2.Bpmn2Package;
 import org.eclipse.bpmn2.modeler.core.IBpmn2RuntimeExtension;
@@ -105,7 +110,108 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 						);
 				}
 			}
-			return super.add(customTaskDescriptor);
+			if (super.add(customTaskDescriptor)) {
+				changed();
+				return true;
+			}
+			return false;
+		}
+
+		// index of Custom Task IDs (case-insensitive) rebuilt lazily after any change to this set
+		private volatile Map<String, CustomTaskDescriptor> idIndex;
+		private volatile int modificationCount;
+
+		private void changed() {
+			idIndex = null;
+			++modificationCount;
+		}
+
+		/**
+		 * Returns a counter that is incremented whenever Custom Task
+		 * Descriptors are added to or removed from this set. Clients that cache
+		 * information derived from this set (e.g. the tool palette) can compare
+		 * this with a previously saved value to determine if the set has
+		 * changed.
+		 * 
+		 * @return the modification count
+		 */
+		public int getModificationCount() {
+			return modificationCount;
+		}
+
+		/**
+		 * Returns the Custom Task Descriptor with the given ID, ignoring case.
+		 * 
+		 * @param id the Custom Task ID
+		 * @return the Custom Task Descriptor or null if not found
+		 */
+		public CustomTaskDescriptor get(String id) {
+			if (id==null)
+				return null;
+			Map<String, CustomTaskDescriptor> index = idIndex;
+			if (index==null) {
+				index = new HashMap<String, CustomTaskDescriptor>();
+				for (CustomTaskDescriptor ctd : this) {
+					String key = ctd.getId().toLowerCase(Locale.ENGLISH);
+					if (!index.containsKey(key))
+						index.put(key, ctd);
+				}
+				idIndex = index;
+			}
+			return index.get(id.toLowerCase(Locale.ENGLISH));
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends CustomTaskDescriptor> c) {
+			changed();
+			return super.addAll(c);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			changed();
+			return super.remove(o);
+		}
+
+		@Override
+		public void clear() {
+			changed();
+			super.clear();
+		}
+
+		@Override
+		public CustomTaskDescriptor pollFirst() {
+			changed();
+			return super.pollFirst();
+		}
+
+		@Override
+		public CustomTaskDescriptor pollLast() {
+			changed();
+			return super.pollLast();
+		}
+
+		@Override
+		public Iterator<CustomTaskDescriptor> iterator() {
+			// removeAll() and retainAll() go through the iterator
+			final Iterator<CustomTaskDescriptor> iter = super.iterator();
+			return new Iterator<CustomTaskDescriptor>() {
+				@Override
+				public boolean hasNext() {
+					return iter.hasNext();
+				}
+
+				@Override
+				public CustomTaskDescriptor next() {
+					return iter.next();
+				}
+
+				@Override
+				public void remove() {
+					changed();
+					iter.remove();
+				}
+			};
 		}
 	}
 
@@ -141,6 +247,15 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 	protected List<ExpressionLanguageDescriptor> expressionLanguageDescriptors;
 	protected List<ServiceImplementationDescriptor> serviceImplementationDescriptors;
 
+	// lookup caches for the Extension Descriptor lists above; these are built lazily
+	// and must be cleared whenever extensions are loaded or unloaded
+	private static final Object NOT_FOUND = new Object();
+	private final Map<Class, Object> propertyExtensionCache = new ConcurrentHashMap<Class, Object>();
+	private volatile Map<String, PropertyExtensionDescriptor> propertyExtensionIndex;
+	private final Map<EClass, Object> featureContainerCache = new ConcurrentHashMap<EClass, Object>();
+	private volatile Map<String, FeatureContainerDescriptor> featureContainerIndex;
+	private final Map<EClass, List<ModelExtensionDescriptor>> modelExtensionCache = new ConcurrentHashMap<EClass, List<ModelExtensionDescriptor>>();
+
 	// all of the extension descriptor classes in the order in which they need to be processed
 	static Class extensionDescriptorClasses[] = {
 		TargetRuntime.class,
@@ -592,23 +707,11 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 	 * Custom Task convenience methods
 	 */
 	public CustomTaskDescriptor getCustomTask( String id ) {
-		Iterator<CustomTaskDescriptor> ctIter = customTaskDescriptors.iterator();
-		while (ctIter.hasNext()) {
-			CustomTaskDescriptor ctd = ctIter.next();
-			if (ctd.getId().equalsIgnoreCase(id)) 
-				return ctd;
-		}
-		return null;
+		return getCustomTaskDescriptors().get(id);
 	}
 
 	public boolean customTaskExists ( String id ) {
-		Iterator<CustomTaskDescriptor> ctIter = customTaskDescriptors.iterator();
-		while (ctIter.hasNext()) {
-			CustomTaskDescriptor ctd = ctIter.next();
-			if (ctd.getId().equalsIgnoreCase(id)) 
-				return true;
-		}
-		return false;
+		return getCustomTask(id)!=null;
 	}
 	
 	public void addCustomTask(CustomTaskDescriptor ct) {
@@ -631,6 +734,40 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 	 */
 	public void addModelExtension(ModelExtensionDescriptor me) {
 		getModelExtensionDescriptors().add(me);
+		clearExtensionCaches();
+	}
+
+	/**
+	 * Returns the Model Extension Descriptors that apply to the given EClass,
+	 * in the order in which they should be used to populate a new object:
+	 * first the descriptors whose type is the EClass itself, followed by those
+	 * whose type is one of its supertypes.
+	 * 
+	 * @param eClass the type of object being created
+	 * @return an unmodifiable list of Model Extension Descriptors, never null
+	 */
+	public List<ModelExtensionDescriptor> getModelExtensionDescriptors(EClass eClass) {
+		List<ModelExtensionDescriptor> result = modelExtensionCache.get(eClass);
+		if (result==null) {
+			String className = eClass.getName();
+			List<ModelExtensionDescriptor> list = getModelExtensionDescriptors();
+			result = new ArrayList<ModelExtensionDescriptor>();
+			for (ModelExtensionDescriptor med : list) {
+				if (className.equals(med.getType()))
+					result.add(med);
+			}
+			for (ModelExtensionDescriptor med : list) {
+				for (EClass st : eClass.getEAllSuperTypes()) {
+					if (st.getName().equals(med.getType()))
+						result.add(med);
+				}
+			}
+			result = result.isEmpty() ?
+					Collections.<ModelExtensionDescriptor>emptyList() :
+					Collections.unmodifiableList(result);
+			modelExtensionCache.put(eClass, result);
+		}
+		return result;
 	}
 	
 	/*
@@ -638,23 +775,75 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 	 */
 	public void addPropertyExtension(PropertyExtensionDescriptor me) {
 		getPropertyExtensionDescriptors().add(me);
+		clearExtensionCaches();
 	}
 
 	public PropertyExtensionDescriptor getPropertyExtension(Class clazz) {
-		for (PropertyExtensionDescriptor ped : getPropertyExtensionDescriptors()) {
-			String className = clazz.getName();
-			if (className.equals(ped.type))
-				return ped;
-			// well, that didn't work...
-			// The "type" name should be the BPMN2 element's interface definition;
-			// if it's an implementation class name, try to convert it to its
-			// interface name.
-			className = className.replaceFirst("\\.impl\\.", "."); //$NON-NLS-1$ //$NON-NLS-2$
-			className = className.replaceFirst("Impl$", ""); //$NON-NLS-1$ //$NON-NLS-2$
-			if (className.equals(ped.type))
-				return ped;
+		Object ped = propertyExtensionCache.get(clazz);
+		if (ped==null) {
+			ped = findPropertyExtension(clazz);
+			propertyExtensionCache.put(clazz, ped==null ? NOT_FOUND : ped);
+		}
+		return ped==NOT_FOUND ? null : (PropertyExtensionDescriptor)ped;
+	}
+
+	private PropertyExtensionDescriptor findPropertyExtension(Class clazz) {
+		Map<String, PropertyExtensionDescriptor> index = propertyExtensionIndex;
+		if (index==null) {
+			index = new HashMap<String, PropertyExtensionDescriptor>();
+			for (PropertyExtensionDescriptor ped : getPropertyExtensionDescriptors()) {
+				if (ped.type!=null && !index.containsKey(ped.type))
+					index.put(ped.type, ped);
+			}
+			propertyExtensionIndex = index;
+		}
+		return findByTypeName(index, getPropertyExtensionDescriptors(), clazz.getName());
+	}
+
+	/**
+	 * Looks up a descriptor by its "type" attribute in the given index. The
+	 * "type" name should be the BPMN2 element's interface definition; if the
+	 * class name is an implementation class name, its interface name is also
+	 * tried. If both match, the descriptor that was defined first wins.
+	 * 
+	 * @param index the descriptors keyed by type name
+	 * @param list the descriptors in the order in which they were defined
+	 * @param className the class name to look up
+	 * @return the descriptor or null if not found
+	 */
+	private static <T> T findByTypeName(Map<String, T> index, List<T> list, String className) {
+		T d1 = index.get(className);
+		T d2 = index.get(getInterfaceName(className));
+		if (d1==null)
+			return d2;
+		if (d2!=null && list.indexOf(d2) < list.indexOf(d1))
+			return d2;
+		return d1;
+	}
+
+	private static String getInterfaceName(String className) {
+		className = className.replaceFirst("\\.impl\\.", "."); //$NON-NLS-1$ //$NON-NLS-2$
+		return className.replaceFirst("Impl$", ""); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Discards the cached lookups of Extension Descriptors. This must be called
+	 * whenever descriptors are added to or removed from this Target Runtime.
+	 */
+	protected void clearExtensionCaches() {
+		propertyExtensionIndex = null;
+		propertyExtensionCache.clear();
+		featureContainerIndex = null;
+		featureContainerCache.clear();
+		modelExtensionCache.clear();
+	}
+
+	private static void clearAllExtensionCaches() {
+		if (targetRuntimes!=null) {
+			for (TargetRuntime rt : targetRuntimes) {
+				rt.clearExtensionCaches();
+			}
 		}
-		return null;
 	}
 	
 	/*
@@ -662,23 +851,32 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 	 */
 	public void addFeatureContainer(FeatureContainerDescriptor me) {
 		getFeatureContainerDescriptors().add(me);
+		clearExtensionCaches();
 	}
 
 	public FeatureContainerDescriptor getFeatureContainer(EClass clazz) {
-		for (FeatureContainerDescriptor fcd : getFeatureContainerDescriptors()) {
-			String className = clazz.getInstanceClassName();
-			if (className.equals(fcd.type))
-				return fcd;
-			// well, that didn't work...
-			// The "type" name should be the BPMN2 element's interface definition;
-			// if it's an implementation class name, try to convert it to its
-			// interface name.
-			className = className.replaceFirst("\\.impl\\.", "."); //$NON-NLS-1$ //$NON-NLS-2$
-			className = className.replaceFirst("Impl$", ""); //$NON-NLS-1$ //$NON-NLS-2$
-			if (className.equals(fcd.type))
-				return fcd;
+		Object fcd = featureContainerCache.get(clazz);
+		if (fcd==null) {
+			fcd = findFeatureContainer(clazz);
+			featureContainerCache.put(clazz, fcd==null ? NOT_FOUND : fcd);
 		}
-		return null;
+		return fcd==NOT_FOUND ? null : (FeatureContainerDescriptor)fcd;
+	}
+
+	private FeatureContainerDescriptor findFeatureContainer(EClass clazz) {
+		String className = clazz.getInstanceClassName();
+		if (className==null)
+			return null;
+		Map<String, FeatureContainerDescriptor> index = featureContainerIndex;
+		if (index==null) {
+			index = new HashMap<String, FeatureContainerDescriptor>();
+			for (FeatureContainerDescriptor fcd : getFeatureContainerDescriptors()) {
+				if (fcd.type!=null && !index.containsKey(fcd.type))
+					index.put(fcd.type, fcd);
+			}
+			featureContainerIndex = index;
+		}
+		return findByTypeName(index, getFeatureContainerDescriptors(), className);
 	}
 	
 	/*
@@ -902,6 +1100,7 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 				createRuntimeExtensionDescriptor(currentRuntime, e, file);
 			}
 		}
+		clearAllExtensionCaches();
 	}
 
 	public static void unloadExtensions(IFile file) {
@@ -921,6 +1120,7 @@ public class TargetRuntime extends BaseRuntimeExtensionDescriptor implements IRu
 			for (IRuntimeExtensionDescriptor d : disposed) {
 				d.dispose();
 			}
+			clearAllExtensionCaches();
 		}
 
 	}
@@ -16,8 +16,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.bpmn2.AdHocSubProcess;
 import org.eclipse.bpmn2.BaseElement;
@@ -30,7 +32,6 @@ import org.eclipse.bpmn2.CategoryValue;
 import org.eclipse.bpmn2.Choreography;
 import org.eclipse.bpmn2.ChoreographyActivity;
 import org.eclipse.bpmn2.Collaboration;
-import org.eclipse.bpmn2.CorrelationPropertyRetrievalExpression;
 import org.eclipse.bpmn2.Definitions;
 import org.eclipse.bpmn2.EndEvent;
 import org.eclipse.bpmn2.Event;
@@ -43,13 +44,9 @@ import org.eclipse.bpmn2.IntermediateCatchEvent;
 import org.eclipse.bpmn2.IntermediateThrowEvent;
 import org.eclipse.bpmn2.Lane;
 import org.eclipse.bpmn2.Message;
-import org.eclipse.bpmn2.MessageEventDefinition;
 import org.eclipse.bpmn2.MessageFlow;
-import org.eclipse.bpmn2.Operation;
 import org.eclipse.bpmn2.Participant;
 import org.eclipse.bpmn2.Process;
-import org.eclipse.bpmn2.ReceiveTask;
-import org.eclipse.bpmn2.SendTask;
 import org.eclipse.bpmn2.SequenceFlow;
 import org.eclipse.bpmn2.StartEvent;
 import org.eclipse.bpmn2.SubChoreography;
@@ -75,6 +72,7 @@ import org.eclipse.dd.di.DiagramElement;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.graphiti.datatypes.IDimension;
 import org.eclipse.graphiti.datatypes.ILocation;
@@ -101,6 +99,8 @@ import org.eclipse.graphiti.mm.pictograms.ContainerShape;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.mm.pictograms.FreeFormConnection;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.mm.pictograms.PictogramLink;
+import org.eclipse.graphiti.mm.pictograms.PictogramsPackage;
 import org.eclipse.graphiti.mm.pictograms.Shape;
 import org.eclipse.graphiti.services.Graphiti;
 import org.eclipse.graphiti.services.IPeService;
@@ -598,6 +598,21 @@ public class FeatureSupport {
 	}
 
 	public static List<ContainerShape> findGroupedShapes(ContainerShape groupShape) {
+		return findGroupedShapes(groupShape, null);
+	}
+
+	/**
+	 * Find all shapes that are inside the given Group.
+	 * 
+	 * @param groupShape the Group shape
+	 * @param index an index of the diagram's shape bounds, or null to create a
+	 *            new one. The same index can be reused for several queries
+	 *            as long as no shapes other than Groups are moved or resized
+	 *            in between.
+	 * @return the grouped shapes, including the top-level container of each
+	 *         grouped shape.
+	 */
+	public static List<ContainerShape> findGroupedShapes(ContainerShape groupShape, ShapeGridIndex index) {
 		Diagram diagram = null;
 		EObject parent = groupShape.eContainer();
 		while (parent!=null) {
@@ -612,32 +627,20 @@ public class FeatureSupport {
 		// these will be moved along with the Group
 		List<ContainerShape> list = new ArrayList<ContainerShape>();
 		if (diagram!=null && isGroupShape(groupShape)) {
-			TreeIterator<EObject> iter = diagram.eAllContents();
-			while (iter.hasNext()) {
-				EObject child = iter.next();
-				if (child instanceof ContainerShape
-						&& child!=groupShape
-						&& !list.contains(child)
-						&& !isLabelShape((ContainerShape)child)) {
-					ContainerShape shape = (ContainerShape)child;
-					if (isGroupShape(shape)) {
-						if (GraphicsUtil.contains(groupShape, shape)) {
-							if (!list.contains(shape)) {
-								list.add(shape);
-							}
-						}
+			if (index==null)
+				index = new ShapeGridIndex(diagram);
+			Set<ContainerShape> found = Collections.newSetFromMap(new IdentityHashMap<ContainerShape, Boolean>());
+			for (ContainerShape shape : index.findContainedShapes(groupShape)) {
+				if (found.add(shape)) {
+					list.add(shape);
+				}
+				if (!isGroupShape(shape)) {
+					// find this shape's parent ContainerShape if it has one
+					while (!(shape.getContainer() instanceof Diagram)) {
+						shape = shape.getContainer();
 					}
-					else if (GraphicsUtil.contains(groupShape, shape)) {
-						if (!list.contains(shape)) {
-							list.add(shape);
-						}
-						// find this shape's parent ContainerShape if it has one
-						while (!(shape.getContainer() instanceof Diagram)) {
-							shape = shape.getContainer();
-						}
-						if (!list.contains(shape) && shape!=groupShape) {
-							list.add(shape);
-						}
+					if (shape!=groupShape && found.add(shape)) {
+						list.add(shape);
 					}
 				}
 			}
@@ -649,52 +652,46 @@ public class FeatureSupport {
 		return shape instanceof ContainerShape && BusinessObjectUtil.getFirstBaseElement(shape) instanceof Group;
 	}
 
+	private static final EReference[] MESSAGE_REFERENCES = new EReference[] {
+		Bpmn2Package.eINSTANCE.getMessageFlow_MessageRef(),
+		Bpmn2Package.eINSTANCE.getMessageEventDefinition_MessageRef(),
+		Bpmn2Package.eINSTANCE.getOperation_InMessageRef(),
+		Bpmn2Package.eINSTANCE.getOperation_OutMessageRef(),
+		Bpmn2Package.eINSTANCE.getReceiveTask_MessageRef(),
+		Bpmn2Package.eINSTANCE.getSendTask_MessageRef(),
+		Bpmn2Package.eINSTANCE.getCorrelationPropertyRetrievalExpression_MessageRef(),
+	};
+
 	public static List<EObject> findMessageReferences(Diagram diagram, Message message) {
 		List<EObject> result = new ArrayList<EObject>();
-		Definitions definitions = ModelUtil.getDefinitions(message);
-		TreeIterator<EObject> iter = definitions.eAllContents();
-		while (iter.hasNext()) {
-			EObject o = iter.next();
-			if (o instanceof MessageFlow) {
-				if (((MessageFlow)o).getMessageRef() == message) {
-					result.add(o);
-				}
-			}
-			if (o instanceof MessageEventDefinition) {
-				if (((MessageEventDefinition)o).getMessageRef() == message) {
-					result.add(o);
-				}
-			}
-			if (o instanceof Operation) {
-				if (((Operation)o).getInMessageRef() == message ||
-						((Operation)o).getOutMessageRef() == message) {
-					result.add(o);
-				}
-			}
-			if (o instanceof ReceiveTask) {
-				if (((ReceiveTask)o).getMessageRef() == message) {
+		for (EReference reference : MESSAGE_REFERENCES) {
+			for (EObject o : ModelUtil.findReferrers(message, reference)) {
+				if (!result.contains(o))
 					result.add(o);
-				}
-			}
-			if (o instanceof SendTask) {
-				if (((SendTask)o).getMessageRef() == message) {
-					result.add(o);
-				}
-			}
-			if (o instanceof CorrelationPropertyRetrievalExpression) {
-				if (((CorrelationPropertyRetrievalExpression)o).getMessageRef() == message) {
-					result.add(o);
-				}
 			}
 		}
 
 		if (diagram!=null) {
-			iter = diagram.eResource().getAllContents();
-			while (iter.hasNext()) {
-				EObject o = iter.next();
-				if (o instanceof ContainerShape && !isLabelShape((ContainerShape)o)) {
-					if (BusinessObjectUtil.getFirstBaseElement((ContainerShape)o) == message)
-						result.add(o);
+			Resource resource = diagram.eResource();
+			if (message.eResource()!=null && resource.getResourceSet()==message.eResource().getResourceSet()) {
+				// the PictogramLinks of the message shapes are in the same
+				// inverse reference index as the BPMN2 model
+				for (EObject o : ModelUtil.findReferrers(message, PictogramsPackage.eINSTANCE.getPictogramLink_BusinessObjects())) {
+					PictogramElement pe = ((PictogramLink)o).getPictogramElement();
+					if (pe instanceof ContainerShape && pe.eResource()==resource && !isLabelShape((ContainerShape)pe)) {
+						if (BusinessObjectUtil.getFirstBaseElement(pe) == message)
+							result.add(pe);
+					}
+				}
+			}
+			else {
+				TreeIterator<EObject> iter = resource.getAllContents();
+				while (iter.hasNext()) {
+					EObject o = iter.next();
+					if (o instanceof ContainerShape && !isLabelShape((ContainerShape)o)) {
+						if (BusinessObjectUtil.getFirstBaseElement((ContainerShape)o) == message)
+							result.add(o);
+					}
 				}
 			}
 		}
@@ -872,7 +869,31 @@ public class FeatureSupport {
 		return updateConnection(fp,connection);
 	}
 
+	/**
+	 * Update the connections of the given shape that are not already in the
+	 * given list. The updated connections are appended to the list.
+	 * 
+	 * @param fp the Feature Provider
+	 * @param ac the shape whose connections are updated
+	 * @param alreadyUpdated connections that are not updated again
+	 */
 	public static void updateConnections(IFeatureProvider fp, AnchorContainer ac, List<Connection> alreadyUpdated) {
+		updateConnections(fp, ac, (Collection<Connection>) alreadyUpdated);
+	}
+
+	/**
+	 * Same as {@link #updateConnections(IFeatureProvider, AnchorContainer, List)}
+	 * but with a constant time lookup of the already updated connections.
+	 * 
+	 * @param fp the Feature Provider
+	 * @param ac the shape whose connections are updated
+	 * @param alreadyUpdated connections that are not updated again
+	 */
+	public static void updateConnections(IFeatureProvider fp, AnchorContainer ac, Set<Connection> alreadyUpdated) {
+		updateConnections(fp, ac, (Collection<Connection>) alreadyUpdated);
+	}
+
+	private static void updateConnections(IFeatureProvider fp, AnchorContainer ac, Collection<Connection> alreadyUpdated) {
 		for (int ai=0; ai<ac.getAnchors().size(); ++ai) {
 			Anchor a = ac.getAnchors().get(ai);
 			for (int ci=0; ci<a.getIncomingConnections().size(); ++ci) {
@@ -901,12 +922,12 @@ public class FeatureSupport {
 	}
 
 	public static void updateConnections(IFeatureProvider fp, AnchorContainer ac) {
-		List<Connection> alreadyUpdated = new ArrayList<Connection>();
+		Set<Connection> alreadyUpdated = Collections.newSetFromMap(new IdentityHashMap<Connection, Boolean>());
 		updateConnections(fp, ac, alreadyUpdated);
 	}
 	
 	public static void updateConnections(IFeatureProvider fp, List<? extends AnchorContainer> acs) {
-		List<Connection> alreadyUpdated = new ArrayList<Connection>();
+		Set<Connection> alreadyUpdated = Collections.newSetFromMap(new IdentityHashMap<Connection, Boolean>());
 		for (AnchorContainer ac : acs)
 			updateConnections(fp, ac, alreadyUpdated);
 	}
@@ -1385,14 +1406,11 @@ public class FeatureSupport {
 	}
 	
 	public static String getPropertyValue(PropertyContainer propertyContainer, String key) {
-		return Graphiti.getPeService().getPropertyValue(propertyContainer, key);
+		return PropertyCacheAdapter.getPropertyValue(propertyContainer, key);
 	}
 	
 	public static void setPropertyValue(PropertyContainer propertyContainer, String key, String value) {
-		while (Graphiti.getPeService().getPropertyValue(propertyContainer, key)!=null)
-			Graphiti.getPeService().removeProperty(propertyContainer, key);
-		if (value!=null)
-			Graphiti.getPeService().setPropertyValue(propertyContainer, key, value);
+		PropertyCacheAdapter.setPropertyValue(propertyContainer, key, value);
 	}
 	
 	public static class ExpandableActivitySizeCalculator {
@@ -13,6 +13,7 @@
 package org.eclipse.bpmn2.modeler.core.utils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -60,11 +61,13 @@ import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.impl.DynamicEObjectImpl;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.FeatureMap;
 import org.eclipse.emf.ecore.xml.type.XMLTypePackage;
@@ -739,6 +742,60 @@ public class ModelUtil {
 		return false;
 	}
 	
+	/**
+	 * Find all objects that refer to the given object through the given
+	 * reference.
+	 * 
+	 * The search uses an inverse reference index that is installed on the
+	 * object's ResourceSet the first time it is needed, and is then kept up
+	 * to date incrementally. If the object is not contained in a ResourceSet,
+	 * the contents of its root container are searched instead.
+	 * 
+	 * @param target the referenced object
+	 * @param reference the reference feature
+	 * @return the referring objects, never null.
+	 */
+	public static List<EObject> findReferrers(EObject target, EReference reference) {
+		Collection<EStructuralFeature.Setting> settings;
+		ECrossReferenceAdapter index = getInverseReferenceIndex(target);
+		if (index!=null)
+			settings = index.getInverseReferences(target, false);
+		else
+			settings = EcoreUtil.UsageCrossReferencer.find(target, EcoreUtil.getRootContainer(target));
+		List<EObject> result = new ArrayList<EObject>();
+		for (EStructuralFeature.Setting setting : settings) {
+			if (setting.getEStructuralFeature()==reference && !result.contains(setting.getEObject()))
+				result.add(setting.getEObject());
+		}
+		return result;
+	}
+
+	private static ECrossReferenceAdapter getInverseReferenceIndex(EObject object) {
+		Resource resource = object.eResource();
+		if (resource==null || resource.getResourceSet()==null)
+			return null;
+		ResourceSet resourceSet = resource.getResourceSet();
+		for (Adapter a : resourceSet.eAdapters()) {
+			if (a instanceof InverseReferenceIndex)
+				return (InverseReferenceIndex) a;
+		}
+		InverseReferenceIndex index = new InverseReferenceIndex();
+		resourceSet.eAdapters().add(index);
+		return index;
+	}
+
+	/**
+	 * The inverse reference index used by {@link ModelUtil#findReferrers(EObject, EReference)}.
+	 * Proxies are never resolved, so building the index does not load any
+	 * referenced resources.
+	 */
+	private static class InverseReferenceIndex extends ECrossReferenceAdapter {
+		@Override
+		protected boolean resolve() {
+			return false;
+		}
+	}
+
 	public static Definitions getDefinitions(Object object) {
 		if (object instanceof DiagramEditor) {
 			DiagramEditor editor = (DiagramEditor) object;
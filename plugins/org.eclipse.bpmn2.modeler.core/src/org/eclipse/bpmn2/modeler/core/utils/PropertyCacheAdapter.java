@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2012, 2013, 2014 Red Hat, Inc.
+ *  All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.bpmn2.modeler.core.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.graphiti.mm.MmFactory;
+import org.eclipse.graphiti.mm.MmPackage;
+import org.eclipse.graphiti.mm.Property;
+import org.eclipse.graphiti.mm.PropertyContainer;
+
+/**
+ * A transient index of the Graphiti properties of a PropertyContainer, used by
+ * {@link FeatureSupport#getPropertyValue(PropertyContainer, String)} and
+ * {@link FeatureSupport#setPropertyValue(PropertyContainer, String, String)}
+ * to avoid scanning the container's property list on every lookup and update.
+ * <p>
+ * The index maps each key to the first Property with that key. It is
+ * read-through: it is filled from the persisted Graphiti properties on first
+ * use, and values are always read from the Property objects themselves. It is
+ * write-through: updates made through this class change the Property objects
+ * and the index together. Changes made by anything else, e.g. the Graphiti
+ * PeService or an undo/redo, that add or remove properties or change a
+ * property key discard the index. Property values are always stored in the
+ * Graphiti properties, so the file format is not affected.
+ */
+public class PropertyCacheAdapter extends AdapterImpl {
+
+	private final PropertyContainer container;
+	// the first property with each key, and the keys that have more than one
+	private Map<String, Property> properties;
+	private Set<String> duplicateKeys;
+	private Set<Property> observed;
+	// true while this adapter is changing the container's properties
+	private boolean updating;
+
+	private PropertyCacheAdapter(PropertyContainer container) {
+		this.container = container;
+	}
+
+	/**
+	 * Return the value of the first property of the given container with the
+	 * given key, just like {@link org.eclipse.graphiti.services.IPeService#getPropertyValue(PropertyContainer, String)}.
+	 *
+	 * @param propertyContainer the PictogramElement or GraphicsAlgorithm
+	 * @param key the property key
+	 * @return the property value or null if the container has no such property.
+	 */
+	public static String getPropertyValue(PropertyContainer propertyContainer, String key) {
+		if (propertyContainer==null || key==null)
+			return null;
+		return adapt(propertyContainer).getValue(key);
+	}
+
+	/**
+	 * Set the value of the property of the given container with the given key.
+	 * Any other properties with the same key are removed.
+	 *
+	 * @param propertyContainer the PictogramElement or GraphicsAlgorithm
+	 * @param key the property key
+	 * @param value the new property value, or null to remove the property.
+	 */
+	public static void setPropertyValue(PropertyContainer propertyContainer, String key, String value) {
+		if (propertyContainer==null || key==null)
+			return;
+		adapt(propertyContainer).setValue(key, value);
+	}
+
+	private static PropertyCacheAdapter adapt(PropertyContainer propertyContainer) {
+		for (Adapter a : propertyContainer.eAdapters()) {
+			if (a instanceof PropertyCacheAdapter && ((PropertyCacheAdapter)a).container==propertyContainer)
+				return (PropertyCacheAdapter) a;
+		}
+		PropertyCacheAdapter adapter = new PropertyCacheAdapter(propertyContainer);
+		propertyContainer.eAdapters().add(adapter);
+		return adapter;
+	}
+
+	private void validate() {
+		if (properties==null) {
+			properties = new HashMap<String, Property>();
+			duplicateKeys = new HashSet<String>();
+			observed = new HashSet<Property>();
+			for (Property p : container.getProperties()) {
+				// the first property with a given key wins
+				if (properties.containsKey(p.getKey()))
+					duplicateKeys.add(p.getKey());
+				else
+					properties.put(p.getKey(), p);
+				observe(p);
+			}
+		}
+	}
+
+	private String getValue(String key) {
+		validate();
+		Property p = properties.get(key);
+		return p==null ? null : p.getValue();
+	}
+
+	private void setValue(String key, String value) {
+		validate();
+		updating = true;
+		try {
+			Property p = properties.get(key);
+			if (duplicateKeys.remove(key)) {
+				List<Property> duplicates = new ArrayList<Property>();
+				for (Property q : container.getProperties()) {
+					if (q!=p && key.equals(q.getKey()))
+						duplicates.add(q);
+				}
+				container.getProperties().removeAll(duplicates);
+				for (Property q : duplicates)
+					unobserve(q);
+			}
+			if (value==null) {
+				if (p!=null) {
+					container.getProperties().remove(p);
+					unobserve(p);
+					properties.remove(key);
+				}
+			}
+			else if (p!=null) {
+				p.setValue(value);
+			}
+			else {
+				p = MmFactory.eINSTANCE.createProperty();
+				p.setKey(key);
+				p.setValue(value);
+				container.getProperties().add(p);
+				observe(p);
+				properties.put(key, p);
+			}
+		}
+		finally {
+			updating = false;
+		}
+	}
+
+	private void observe(Property p) {
+		p.eAdapters().add(this);
+		observed.add(p);
+	}
+
+	private void unobserve(Property p) {
+		observed.remove(p);
+		p.eAdapters().remove(this);
+	}
+
+	private void invalidate() {
+		if (properties!=null) {
+			properties = null;
+			duplicateKeys = null;
+			for (Property p : observed)
+				p.eAdapters().remove(this);
+			observed = null;
+		}
+	}
+
+	@Override
+	public void notifyChanged(Notification msg) {
+		if (updating || msg.getEventType() == Notification.REMOVING_ADAPTER)
+			return;
+		if (msg.getNotifier()==container) {
+			if (msg.getFeature()==MmPackage.eINSTANCE.getPropertyContainer_Properties())
+				invalidate();
+		}
+		else if (msg.getFeature()==MmPackage.eINSTANCE.getProperty_Key()) {
+			// values are read from the properties, only a key change
+			// affects which property is found for a key
+			invalidate();
+		}
+	}
+
+	@Override
+	public void setTarget(Notifier newTarget) {
+		// this adapter is attached to the container and to its properties;
+		// the container is the only real target
+	}
+
+	@Override
+	public void unsetTarget(Notifier oldTarget) {
+		if (oldTarget==container)
+			invalidate();
+	}
+
+	@Override
+	public Notifier getTarget() {
+		return container;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type==PropertyCacheAdapter.class;
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2012, 2013, 2014 Red Hat, Inc.
+ *  All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.bpmn2.modeler.core.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.graphiti.datatypes.IDimension;
+import org.eclipse.graphiti.datatypes.ILocation;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.services.Graphiti;
+
+/**
+ * A snapshot of the diagram-relative bounds of all ContainerShapes (other than
+ * labels) in a Diagram, bucketed into a uniform grid by their top-left corner.
+ * This allows the shapes that lie inside a given rectangle to be found by only
+ * visiting the grid cells covered by that rectangle.
+ * <p>
+ * The index is not updated automatically when shapes are moved or resized;
+ * either call {@link #update(ContainerShape)} for each changed shape, or
+ * create a new index after the diagram layout changes.
+ */
+public class ShapeGridIndex {
+
+	private static final int CELL_SIZE = 256;
+
+	private static class Entry {
+		final ContainerShape shape;
+		final int ordinal;
+		int x, y, width, height;
+
+		Entry(ContainerShape shape, int ordinal) {
+			this.shape = shape;
+			this.ordinal = ordinal;
+			calculateBounds();
+		}
+
+		void calculateBounds() {
+			ILocation loc = Graphiti.getLayoutService().getLocationRelativeToDiagram(shape);
+			IDimension size = GraphicsUtil.calculateSize(shape);
+			x = loc.getX();
+			y = loc.getY();
+			width = size.getWidth();
+			height = size.getHeight();
+		}
+	}
+
+	private static final Comparator<Entry> ORDINAL_COMPARATOR = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return e1.ordinal < e2.ordinal ? -1 : (e1.ordinal == e2.ordinal ? 0 : 1);
+		}
+	};
+
+	private final Map<Long, List<Entry>> cells = new HashMap<Long, List<Entry>>();
+	private final Map<ContainerShape, Entry> entries = new IdentityHashMap<ContainerShape, Entry>();
+
+	public ShapeGridIndex(Diagram diagram) {
+		int ordinal = 0;
+		TreeIterator<EObject> iter = diagram.eAllContents();
+		while (iter.hasNext()) {
+			EObject child = iter.next();
+			if (child instanceof ContainerShape && !FeatureSupport.isLabelShape((ContainerShape)child)) {
+				Entry entry = new Entry((ContainerShape)child, ordinal++);
+				entries.put(entry.shape, entry);
+				addToCell(entry);
+			}
+		}
+	}
+
+	/**
+	 * Recalculate the bounds of the given shape and of all of its child
+	 * shapes after the shape has been moved or resized. Shapes that were not
+	 * in the diagram when this index was created are ignored.
+	 *
+	 * @param shape the moved or resized shape.
+	 */
+	public void update(ContainerShape shape) {
+		updateEntry(shape);
+		TreeIterator<EObject> iter = shape.eAllContents();
+		while (iter.hasNext()) {
+			EObject child = iter.next();
+			if (child instanceof ContainerShape)
+				updateEntry((ContainerShape)child);
+		}
+	}
+
+	private void updateEntry(ContainerShape shape) {
+		Entry entry = entries.get(shape);
+		if (entry!=null) {
+			List<Entry> list = cells.get(cellKey(cell(entry.x), cell(entry.y)));
+			if (list!=null)
+				list.remove(entry);
+			entry.calculateBounds();
+			addToCell(entry);
+		}
+	}
+
+	private void addToCell(Entry entry) {
+		Long key = cellKey(cell(entry.x), cell(entry.y));
+		List<Entry> list = cells.get(key);
+		if (list==null) {
+			list = new ArrayList<Entry>();
+			cells.put(key, list);
+		}
+		list.add(entry);
+	}
+
+	/**
+	 * Find all shapes whose bounds lie strictly inside the bounds of the given
+	 * shape, using the same test as {@link GraphicsUtil#contains(org.eclipse.graphiti.mm.pictograms.Shape, org.eclipse.graphiti.mm.pictograms.Shape)}.
+	 * The bounds of the given shape are calculated when this method is called.
+	 *
+	 * @param container the containing shape; it is never included in the result.
+	 * @return the contained shapes, in diagram traversal order.
+	 */
+	public List<ContainerShape> findContainedShapes(ContainerShape container) {
+		ILocation loc = Graphiti.getLayoutService().getLocationRelativeToDiagram(container);
+		IDimension size = GraphicsUtil.calculateSize(container);
+		int x1 = loc.getX();
+		int y1 = loc.getY();
+		int x2 = x1 + size.getWidth();
+		int y2 = y1 + size.getHeight();
+
+		List<Entry> found = new ArrayList<Entry>();
+		for (int cx = cell(x1); cx <= cell(x2); ++cx) {
+			for (int cy = cell(y1); cy <= cell(y2); ++cy) {
+				List<Entry> list = cells.get(cellKey(cx, cy));
+				if (list!=null) {
+					for (Entry e : list) {
+						if (e.shape!=container &&
+								e.x > x1 && e.x + e.width < x2 &&
+								e.y > y1 && e.y + e.height < y2) {
+							found.add(e);
+						}
+					}
+				}
+			}
+		}
+		Collections.sort(found, ORDINAL_COMPARATOR);
+
+		List<ContainerShape> result = new ArrayList<ContainerShape>(found.size());
+		for (Entry e : found)
+			result.add(e.shape);
+		return result;
+	}
+
+	private static int cell(int coordinate) {
+		// round towards negative infinity so that negative coordinates work
+		return coordinate >= 0 ? coordinate / CELL_SIZE : -((CELL_SIZE - 1 - coordinate) / CELL_SIZE);
+	}
+
+	private static Long cellKey(int cx, int cy) {
+		return Long.valueOf(((long)cx << 32) | (cy & 0xffffffffL));
+	}
+}
@@ -242,7 +242,7 @@ public class StyleUtil {
 		if (b>255) b = 255;
 		if (b<0) b = 0;
 		
-		return new ColorConstant(r, g, b);
+		return ShapeStyle.getColor(r, g, b);
 	}
 	
 	private static GradientColoredAreas getPreferenceDefaultAreas(ShapeStyle ss) {
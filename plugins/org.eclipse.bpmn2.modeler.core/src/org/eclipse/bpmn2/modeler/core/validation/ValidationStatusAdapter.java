@@ -15,6 +15,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.graphiti.tb.IDecorator;
 
 /**
  * ValidationStatusAdapter
@@ -29,6 +30,19 @@ public class ValidationStatusAdapter extends AdapterImpl {
 	}
 
 	private StatusList _validationStatus = new StatusList();
+	// incremented whenever the validation status changes
+	private volatile int _revision;
+	private volatile DecoratorCache _decoratorCache;
+
+	private static class DecoratorCache {
+		final int revision;
+		final IDecorator[] decorators;
+
+		DecoratorCache(int revision, IDecorator[] decorators) {
+			this.revision = revision;
+			this.decorators = decorators;
+		}
+	}
 
     @Override
     public boolean isAdapterForType(Object type) {
@@ -53,6 +67,7 @@ public class ValidationStatusAdapter extends AdapterImpl {
      */
     public void clearValidationStatus() {
         _validationStatus.clear();
+        ++_revision;
     }
 
     /**
@@ -60,6 +75,40 @@ public class ValidationStatusAdapter extends AdapterImpl {
      */
     public void addValidationStatus(IStatus status) {
         _validationStatus.add(status);
+        ++_revision;
+    }
+
+    /**
+     * @return a counter that changes whenever the validation status of the
+     *         target object is cleared or added to.
+     */
+    public int getRevision() {
+        return _revision;
+    }
+
+    /**
+     * @return the decorators that were last saved with
+     *         {@link #setDecorators(IDecorator[], int)}, or null if the
+     *         validation status has changed since then.
+     */
+    public IDecorator[] getDecorators() {
+        DecoratorCache cache = _decoratorCache;
+        if (cache != null && cache.revision == _revision) {
+            return cache.decorators;
+        }
+        return null;
+    }
+
+    /**
+     * Save the diagram decorators that represent the validation status of the
+     * target object. The decorators are discarded when the status changes.
+     * 
+     * @param decorators the decorators; callers must not modify this array.
+     * @param revision the value of {@link #getRevision()} before the
+     *            validation status was read to create the decorators.
+     */
+    public void setDecorators(IDecorator[] decorators, int revision) {
+        _decoratorCache = new DecoratorCache(revision, decorators);
     }
 
     private static class MultiStatusWithMessage extends MultiStatus {
@@ -66,7 +66,7 @@ import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.property.JbpmScriptTaskDeta
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.property.JbpmSendTaskDetailComposite;
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.property.JbpmSequenceFlowDetailComposite;
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.property.JbpmTaskDetailComposite;
-import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WIDLoader;
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WIDRegistry;
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WorkItemDefinition;
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WorkItemDefinition.Parameter;
 import org.eclipse.bpmn2.modeler.ui.AbstractBpmn2RuntimeExtension.RootElementParser;
@@ -95,6 +95,8 @@ public class JBPM5RuntimeExtension implements IBpmn2RuntimeExtension {
 	public final static String DROOLS_NAMESPACE = "http://www.jboss.org/drools"; //$NON-NLS-1$
 
 	private List<WorkItemDefinition> workItemDefinitions;
+	// the WID registry whose icons were most recently registered
+	private static WIDRegistry iconRegistry;
 	
 	/* (non-Javadoc)
 	 * Check if the given input file is a drools-generated (jBPM) process file.
@@ -147,21 +149,16 @@ public class JBPM5RuntimeExtension implements IBpmn2RuntimeExtension {
 				// initialize workItemDefinitions list if necessary
 				getWorkItemDefinitions().clear();
 				try {
-					final WIDLoader loader = new WIDLoader();
-					loader.load(project);
-					
-					if (loader.getClasspathWIDs().size() > 0) {
-						workItemDefinitions.addAll(loader.getClasspathWIDs());
-						for (Entry<String, ImageDescriptor> e : loader.getClasspathIcons().entrySet()) {
-							CustomTaskImageProvider.registerImage(e.getKey(), e.getValue());
-						}
-					}
-
-					if (loader.getProjectWIDs().size() > 0) {
-						workItemDefinitions.addAll(loader.getProjectWIDs());
-						for (Entry<String, ImageDescriptor> e : loader.getProjectIcons().entrySet()) {
+					// the registry is shared by all editors open on this project
+					final WIDRegistry registry = WIDRegistry.getInstance(project);
+					workItemDefinitions.addAll(registry.getWorkItemDefinitions());
+					if (iconRegistry != registry) {
+						// icons are registered by path, so another project may
+						// have replaced them since this project was last opened
+						for (Entry<String, ImageDescriptor> e : registry.getIcons().entrySet()) {
 							CustomTaskImageProvider.registerImage(e.getKey(), e.getValue());
 						}
+						iconRegistry = registry;
 					}
 
 					if (!workItemDefinitions.isEmpty()) {
@@ -175,7 +172,7 @@ public class JBPM5RuntimeExtension implements IBpmn2RuntimeExtension {
 						java.util.Iterator<WorkItemDefinition> widIterator = workItemDefinitions.iterator();
 						while(widIterator.hasNext()) {
 							final WorkItemDefinition wid = widIterator.next();
-							final CustomTaskDescriptor ctd = convertWIDtoCT(inputFile.getProject(),wid);
+							final CustomTaskDescriptor ctd = getCustomTaskDescriptor(registry, wid);
 							if (ctd != null) {
 								if (targetRuntime.customTaskExists(ctd.getId())) {
 									Display.getDefault().asyncExec( new Runnable() {
@@ -260,6 +257,20 @@ public class JBPM5RuntimeExtension implements IBpmn2RuntimeExtension {
 		}
 	}
 	
+	/*
+	 * Return the CustomTaskDescriptor shared by all editors for the registry's project,
+	 * converting the WID only the first time it is requested
+	 */
+	private CustomTaskDescriptor getCustomTaskDescriptor(WIDRegistry registry, WorkItemDefinition wid) {
+		CustomTaskDescriptor ctd = registry.getCustomTaskDescriptor(wid);
+		if (ctd == null) {
+			ctd = convertWIDtoCT(registry.getProject(), wid);
+			if (ctd != null)
+				registry.putCustomTaskDescriptor(wid, ctd);
+		}
+		return ctd;
+	}
+
 	/*
 	 * Convert a WID to a CustomTaskDescriptor
 	 * @param wid
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2012, 2013, 2014 Red Hat, Inc.
+ *  All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.Activator;
+import org.eclipse.core.resources.IProject;
+
+/*
+ * Class: A persistent cache of the *.wid files and icons found in the jars on a
+ * project's classpath. Each jar is fingerprinted by its path, size and last
+ * modification time, and is only rescanned if its fingerprint changes.
+ *
+ * The cache is kept in memory for the life of the workbench session and is
+ * saved in this plug-in's state location so that it survives restarts.
+ */
+public class WIDCache implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private static final String CACHE_FOLDER = "widcache"; //$NON-NLS-1$
+	private static final String CACHE_EXTENSION = ".cache"; //$NON-NLS-1$
+
+	private static final Map<String, WIDCache> instances = new HashMap<String, WIDCache>();
+
+	/**
+	 * The WID file contents and icon images found in a single jar.
+	 */
+	public static class JarContents implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long size;
+		private final long lastModified;
+		private final List<String> wids = new ArrayList<String>();
+		private final Map<String, byte[]> icons = new LinkedHashMap<String, byte[]>();
+
+		public JarContents(File jarFile) {
+			size = jarFile.length();
+			lastModified = jarFile.lastModified();
+		}
+
+		boolean matches(File jarFile) {
+			return size == jarFile.length() && lastModified == jarFile.lastModified();
+		}
+
+		/**
+		 * @return the contents of each *.wid file in the jar.
+		 */
+		public List<String> getWIDs() {
+			return wids;
+		}
+
+		/**
+		 * @return the image data of each icon referenced by the WIDs in the
+		 * jar, indexed by icon path.
+		 */
+		public Map<String, byte[]> getIcons() {
+			return icons;
+		}
+	}
+
+	private final Map<String, JarContents> jars = new HashMap<String, JarContents>();
+	private transient File file;
+	private transient boolean dirty;
+
+	private WIDCache() {
+	}
+
+	/**
+	 * Returns the WID cache for the given project, reading it from the plug-in
+	 * state location the first time it is requested.
+	 *
+	 * @param project
+	 * @return the project's WID cache, never null.
+	 */
+	public static synchronized WIDCache getInstance(IProject project) {
+		String key = project.getName();
+		WIDCache cache = instances.get(key);
+		if (cache==null) {
+			File file = getCacheFile(project);
+			cache = read(file);
+			if (cache==null)
+				cache = new WIDCache();
+			cache.file = file;
+			instances.put(key, cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * Returns the cached contents of the given jar if the jar has not changed
+	 * since it was cached.
+	 *
+	 * @param jarFile
+	 * @return the cached contents or null if the jar needs to be rescanned.
+	 */
+	public synchronized JarContents get(File jarFile) {
+		JarContents contents = jars.get(jarFile.getAbsolutePath());
+		if (contents!=null && contents.matches(jarFile))
+			return contents;
+		return null;
+	}
+
+	public synchronized void put(File jarFile, JarContents contents) {
+		jars.put(jarFile.getAbsolutePath(), contents);
+		dirty = true;
+	}
+
+	/**
+	 * Discard the cached contents of any jars that are no longer on the
+	 * classpath.
+	 *
+	 * @param jarFiles the jars currently on the classpath.
+	 */
+	public synchronized void retainAll(Collection<File> jarFiles) {
+		List<String> paths = new ArrayList<String>();
+		for (File f : jarFiles)
+			paths.add(f.getAbsolutePath());
+		Iterator<String> iter = jars.keySet().iterator();
+		while (iter.hasNext()) {
+			if (!paths.contains(iter.next())) {
+				iter.remove();
+				dirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Write the cache to the plug-in state location if it has changed.
+	 */
+	public synchronized void save() {
+		if (!dirty || file==null)
+			return;
+		ObjectOutputStream os = null;
+		try {
+			file.getParentFile().mkdirs();
+			os = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			os.writeObject(this);
+			dirty = false;
+		}
+		catch (IOException e) {
+			Activator.logError(e);
+		}
+		finally {
+			if (os!=null) {
+				try {
+					os.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private static WIDCache read(File file) {
+		if (file==null || !file.exists())
+			return null;
+		ObjectInputStream is = null;
+		try {
+			is = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			return (WIDCache) is.readObject();
+		}
+		catch (Exception e) {
+			// the cache is stale or corrupt: it will be rebuilt
+			file.delete();
+		}
+		finally {
+			if (is!=null) {
+				try {
+					is.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return null;
+	}
+
+	private static File getCacheFile(IProject project) {
+		Activator plugin = Activator.getDefault();
+		if (plugin==null)
+			return null;
+		try {
+			return plugin.getStateLocation().append(CACHE_FOLDER).append(project.getName() + CACHE_EXTENSION).toFile();
+		}
+		catch (IllegalStateException e) {
+			// no state location available (e.g. running without a workspace)
+			return null;
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -8,10 +10,19 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WIDCache.JarContents;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -29,7 +40,8 @@ import org.eclipse.swt.graphics.ImageData;
  * Class: Visits each file in the project to see if it's a *.conf/*.wid
  * and loads the file's contents into a String. If the given IProject is
  * a JavaProject, then all jars in the classpath are searched for *.conf/*.wid
- * files and their contents are loaded.
+ * files and their contents are loaded. The contents of classpath jars are
+ * cached in a {@link WIDCache} so that unchanged jars are not rescanned.
  * 
  * @author bfitzpat
  *
@@ -37,13 +49,16 @@ import org.eclipse.swt.graphics.ImageData;
 public class WIDLoader {
 
 	private static final int BUFFER_SIZE = 1024;
-	private static final String WID_FOLDER = "/src/main/resources/META-INF";
-	private static final String ICONS_FOLDER = "/src/main/resources/icons";
+	private static final int MAX_SCAN_THREADS = 4;
+	static final String WID_FOLDER = "/src/main/resources/META-INF";
+	static final String ICONS_FOLDER = "/src/main/resources/icons";
 	
 	private List<WorkItemDefinition> projectWIDs = new ArrayList<WorkItemDefinition>();
 	private HashMap<String, ImageDescriptor> projectIcons = new HashMap<String, ImageDescriptor>();
 	private List<WorkItemDefinition> classpathWIDs = new ArrayList<WorkItemDefinition>();
 	private HashMap<String, ImageDescriptor> classpathIcons = new HashMap<String, ImageDescriptor>();
+	private List<java.io.File> classpathJars = new ArrayList<java.io.File>();
+	private WIDCache cache;
 	
 	private class WIDVisitor implements IResourceVisitor {
 
@@ -64,29 +79,11 @@ public class WIDLoader {
 				else if (resource.getType() == IResource.PROJECT) {
 					// Check if this is a Java Project.
 					// If so, check all jars in the classpath for WID files.
-					IProject project = (IProject)resource;
-					IJavaProject javaProject;
-					javaProject = getJavaProject(project);
-					if (javaProject!=null) {
-						for (IClasspathEntry e : javaProject.getRawClasspath()) {
-							if (e.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
-								IPath path = e.getPath();
-								String name = null;
-								if (path.getDevice()!=null)
-									name = e.getPath().toOSString();
-								else
-									name = project.getLocation().removeLastSegments(1).append(e.getPath()).toOSString();
-								java.io.File jarFile = new java.io.File(name);
-								getJarFileWIDs(jarFile);
-							}
-						}
-					}
+					classpathJars.addAll(getClasspathJars((IProject)resource));
 					return true;
 				}
 				else if (resource.getType() == IResource.FOLDER) {
-					// skip over "bin" and "target" folders
-					String name = resource.getName();
-					if ("bin".equals(name) || "target".equals(name)) //$NON-NLS-1$ //$NON-NLS-2$
+					if (isOutputFolder(resource))
 						return false;
 				}
 			} catch (IOException e1) {
@@ -98,11 +95,137 @@ public class WIDLoader {
 		}
 	}
 	
+	/**
+	 * Returns the library jars on the given project's raw classpath, in
+	 * classpath order. This only reads the classpath, it does not open the jars.
+	 * 
+	 * @param project
+	 * @return the classpath jars, or an empty list if this is not a Java Project.
+	 * @throws CoreException if the classpath could not be read.
+	 */
+	static List<java.io.File> getClasspathJars(IProject project) throws CoreException {
+		List<java.io.File> jarFiles = new ArrayList<java.io.File>();
+		IJavaProject javaProject = getJavaProject(project);
+		if (javaProject!=null) {
+			for (IClasspathEntry e : javaProject.getRawClasspath()) {
+				if (e.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+					IPath path = e.getPath();
+					String name = null;
+					if (path.getDevice()!=null)
+						name = e.getPath().toOSString();
+					else
+						name = project.getLocation().removeLastSegments(1).append(e.getPath()).toOSString();
+					jarFiles.add(new java.io.File(name));
+				}
+			}
+		}
+		return jarFiles;
+	}
+
+	/**
+	 * @return true if the given folder is a build output folder ("bin" or
+	 *         "target") that is not searched for WIDs.
+	 */
+	static boolean isOutputFolder(IResource folder) {
+		String name = folder.getName();
+		return "bin".equals(name) || "target".equals(name); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	public void load(IProject project) throws CoreException {
+		cache = WIDCache.getInstance(project);
 		WIDVisitor visitor = new WIDVisitor();
 		project.accept(visitor, IResource.DEPTH_INFINITE, false);
+		loadClasspathJars(classpathJars);
+		cache.retainAll(classpathJars);
+		cache.save();
+	}
+	
+	/**
+	 * Load the WIDs and icons from the given classpath jars. Jars that are not
+	 * already in the WID cache are scanned concurrently; the results are then
+	 * merged in classpath order, so that if more than one jar defines a WID with
+	 * the same name, the one that appears first on the classpath wins.
+	 * 
+	 * @param jarFiles the classpath jars, in classpath order.
+	 */
+	public void loadClasspathJars(List<java.io.File> jarFiles) {
+		int count = jarFiles.size();
+		JarContents[] results = new JarContents[count];
+		// the size and modification time of each jar that is scanned, taken before the scan
+		JarContents[] fingerprints = new JarContents[count];
+		List<Future<JarContents>> futures = new ArrayList<Future<JarContents>>(count);
+		ExecutorService executor = null;
+		try {
+			for (int i=0; i<count; ++i) {
+				final java.io.File jarFile = jarFiles.get(i);
+				results[i] = cache==null ? null : cache.get(jarFile);
+				if (results[i]==null) {
+					fingerprints[i] = new JarContents(jarFile);
+					if (executor==null) {
+						int threads = Math.min(MAX_SCAN_THREADS, Runtime.getRuntime().availableProcessors());
+						executor = Executors.newFixedThreadPool(Math.max(1, threads));
+					}
+					futures.add(executor.submit(new Callable<JarContents>() {
+						@Override
+						public JarContents call() throws Exception {
+							return scanJarFile(jarFile);
+						}
+					}));
+				}
+				else
+					futures.add(null);
+			}
+			for (int i=0; i<count; ++i) {
+				Future<JarContents> f = futures.get(i);
+				if (f!=null) {
+					try {
+						results[i] = f.get();
+						if (cache!=null)
+							cache.put(jarFiles.get(i), results[i]);
+					}
+					catch (ExecutionException e) {
+						e.getCause().printStackTrace();
+						// remember the failure, so that the jar is not rescanned
+						// until it changes
+						if (cache!=null)
+							cache.put(jarFiles.get(i), fingerprints[i]);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+		finally {
+			if (executor!=null)
+				executor.shutdownNow();
+		}
+
+		Set<String> names = new HashSet<String>();
+		for (WorkItemDefinition wid : classpathWIDs) {
+			if (wid.getName()!=null)
+				names.add(wid.getName());
+		}
+		for (int i=0; i<count; ++i) {
+			if (results[i]!=null) {
+				try {
+					getJarFileWIDs(jarFiles.get(i), results[i], names);
+				}
+				catch (WIDException e) {
+					e.printStackTrace();
+				}
+			}
+		}
 	}
 	
+	/**
+	 * @return the classpath jars found by the last {@link #load(IProject)}.
+	 */
+	public List<java.io.File> getClasspathJars() {
+		return classpathJars;
+	}
+
 	public List<WorkItemDefinition> getProjectWIDs() {
 		return projectWIDs;
 	}
@@ -120,9 +243,14 @@ public class WIDLoader {
 	}
 	
 	private void getProjectFileWIDs(IFile file) throws CoreException, IOException, WIDException {
+		List<WorkItemDefinition> widMap;
 		InputStream is = file.getContents();
-		String content = inputStreamToString(is,null);
-		List<WorkItemDefinition> widMap = WIDParser.parse(content);
+		try {
+			widMap = WIDParser.parseReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+		}
+		finally {
+			is.close();
+		}
 		for (WorkItemDefinition wid : widMap) {
 			String icon = wid.getIcon();
 			if (icon!=null && !icon.isEmpty()) {
@@ -156,14 +284,37 @@ public class WIDLoader {
 		}
 	}
 	
-	private void getJarFileWIDs(java.io.File jarFile) throws IOException, WIDException {
+	private void getJarFileWIDs(java.io.File jarFile, JarContents contents, Set<String> names) throws WIDException {
+		for (String content : contents.getWIDs()) {
+			List<WorkItemDefinition> widMap = WIDParser.parse(content);
+			for (WorkItemDefinition wid : widMap) {
+				// a WID defined by a jar earlier in the classpath hides this one
+				String name = wid.getName();
+				if (name!=null && !names.add(name))
+					continue;
+				String icon = wid.getIcon();
+				if (icon!=null && !icon.isEmpty() && !classpathIcons.containsKey(icon)) {
+					byte[] data = contents.getIcons().get(icon);
+					if (data!=null) {
+						ImageDescriptor imageDescriptor = ImageDescriptor.createFromImageData(
+								new ImageData(new ByteArrayInputStream(data)));
+						classpathIcons.put(icon, imageDescriptor);
+					}
+				}
+				((WorkItemDefinitionImpl)wid).setDefinitionFile(jarFile.getAbsoluteFile());
+				classpathWIDs.add(wid);
+			}
+		}
+	}
+
+	private JarContents scanJarFile(java.io.File jarFile) throws IOException {
+		JarContents contents = new JarContents(jarFile);
 		JarFile jar = new java.util.jar.JarFile(jarFile);
 	    InputStream is = null;
 		try {
-//			System.out.println("Jar: "+jar.getName());
-//			for (Entry<Object, Object> e : jar.getManifest().getMainAttributes().entrySet()) {
-//				System.out.println("  "+e.getKey() + "=" + e.getValue());
-//			}
+			// collect the icons referenced by all WIDs in this jar while scanning,
+			// then resolve them by name instead of enumerating the jar once per icon
+			Set<String> icons = new LinkedHashSet<String>();
 			Enumeration<JarEntry> enumEntries = jar.entries();
 			while (enumEntries.hasMoreElements()) {
 			    JarEntry entry = enumEntries.nextElement();
@@ -173,47 +324,43 @@ public class WIDLoader {
 				    	is = jar.getInputStream(entry);
 						if (is!=null) {
 							String content = inputStreamToString(is,null);
-							List<WorkItemDefinition> widMap = WIDParser.parse(content);
-							for (WorkItemDefinition wid : widMap) {
-								String icon = wid.getIcon();
-								getJarFileIcon(jar, icon);
-								((WorkItemDefinitionImpl)wid).setDefinitionFile(jarFile.getAbsoluteFile());
-							}
-							classpathWIDs.addAll(widMap);
+							contents.getWIDs().add(content);
 							is.close();
+							is = null;
+							try {
+								for (WorkItemDefinition wid : WIDParser.parse(content)) {
+									String icon = wid.getIcon();
+									if (icon!=null && !icon.isEmpty())
+										icons.add(icon);
+								}
+							}
+							catch (WIDException e) {
+								// reported when the WIDs are parsed again from the cached contents
+							}
 						}
 				    }
 			    }
 			}
+			for (String icon : icons) {
+				getJarFileIcon(jar, icon, contents);
+			}
 		}
 		finally {
 			jar.close();
 			if (is!=null)
 				is.close();
 		}
+		return contents;
 	}
 
-	private void getJarFileIcon(JarFile jar, String icon) throws IOException {
-		ImageDescriptor imageDescriptor = null;
-		if (icon!=null && !icon.isEmpty() && !classpathIcons.containsKey(icon)) {
+	private void getJarFileIcon(JarFile jar, String icon, JarContents contents) throws IOException {
+		JarEntry entry = jar.getJarEntry(icon);
+		if (entry!=null && !entry.isDirectory()) {
 		    InputStream is = null;
 			try {
-				Enumeration<JarEntry> enumEntries = jar.entries();
-				while (enumEntries.hasMoreElements()) {
-				    JarEntry entry = enumEntries.nextElement();
-				    if (!entry.isDirectory()) {
-					    String name = entry.getName();
-					    if (icon.equals(name)) {
-					    	is = jar.getInputStream(entry);
-							if (is!=null) {
-								imageDescriptor = ImageDescriptor.createFromImageData(new ImageData(is));
-								classpathIcons.put(icon, imageDescriptor);
-								is.close();
-							}
-							break;
-					    }
-				    }
-				}
+		    	is = jar.getInputStream(entry);
+				if (is!=null)
+					contents.getIcons().put(icon, inputStreamToBytes(is));
 			}
 			finally {
 				if (is!=null)
@@ -222,7 +369,7 @@ public class WIDLoader {
 		}
 	}
 	
-	private IJavaProject getJavaProject(IProject project) throws IOException {
+	private static IJavaProject getJavaProject(IProject project) {
         if (project != null) {
             try {
                 if (project.getNature("org.eclipse.jdt.core.javanature") != null) {
@@ -250,5 +397,15 @@ public class WIDLoader {
 	    }
 	    return builder.toString();
 	}
+
+	private static byte[] inputStreamToBytes(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int length;
+		while ((length = inputStream.read(buffer)) != -1) {
+			out.write(buffer, 0, length);
+		}
+		return out.toByteArray();
+	}
 	
 }
\ No newline at end of file
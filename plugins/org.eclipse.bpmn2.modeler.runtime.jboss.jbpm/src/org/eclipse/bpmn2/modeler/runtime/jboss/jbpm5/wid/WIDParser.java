@@ -12,6 +12,10 @@
  ******************************************************************************/
 package org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid;
 
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,27 +39,42 @@ public class WIDParser {
      * @throws WIDException
      */
     public static List<WorkItemDefinition> parse(String content) throws WIDException {
+    	if (content == null) {
+    		throw new WIDException(
+    				"No data passed to WIDHandler.processWorkDefinitionsContent method"); //$NON-NLS-1$
+    	}
+    	return parseReader(new StringReader(content));
+    }
+
+    /**
+     * Reads the content of a *.wid/*.conf file from the given Reader one line
+     * at a time and parses it into a list of WorkItemDefinition classes. The
+     * Reader is not closed.
+     * 
+     * @param reader the source of a WID definition.
+     * @return a list of the parsed WID definitions.
+     * @throws WIDException if the reader is null or could not be read.
+     */
+    public static List<WorkItemDefinition> parseReader(Reader reader) throws WIDException {
 
     	List<WorkItemDefinition> widMap = new ArrayList<WorkItemDefinition>();
     	
-    	if (content == null) {
+    	if (reader == null) {
         	  WIDException widException = 
         			  new WIDException(
         					  "No data passed to WIDHandler.processWorkDefinitionsContent method"); //$NON-NLS-1$
         	  throw widException;
           }
-          if (widMap != null) {
-        	  widMap.clear();
-          }
           
-          String strings[] = content.split("[\n]+"); //$NON-NLS-1$
+    	  LineNumberReader in = new LineNumberReader(reader);
     	  int openBrackets = 0;
     	  WorkItemDefinition currentWid = new WorkItemDefinitionImpl();
     	  
     	  Section current = Section.PARAMETERS;
     	  
-          for (int i = 0; i < strings.length; i++) {
-        	  String trim = strings[i].trim();
+          for (String line = nextLine(in), next; line != null; line = next) {
+        	  next = nextLine(in);
+        	  String trim = line.trim();
         	  if (trim.length() == 0) continue;
         	  if (trim.startsWith("import ") || trim.startsWith("import\t")) {
         		  // collect "import" statements so we can resolve fully qualified class names
@@ -65,8 +84,8 @@ public class WIDParser {
         	  }
         	  
         	  if (trim.startsWith("[") || trim.endsWith("[") || trim.endsWith(":")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-        		  if (trim.endsWith(":") && i < strings.length - 1) { //$NON-NLS-1$
-        			  trim = strings[i].trim() + strings[i+1].trim();
+        		  if (trim.endsWith(":") && next != null) { //$NON-NLS-1$
+        			  trim = line.trim() + next.trim();
         		  } else {
         			  openBrackets++;
         		  }
@@ -150,4 +169,21 @@ public class WIDParser {
           return widMap;
      }
 
+    /*
+     * Returns the next line, skipping empty lines.
+     */
+    private static String nextLine(LineNumberReader in) throws WIDException {
+    	try {
+    		String line;
+    		do {
+    			line = in.readLine();
+    		}
+    		while (line != null && line.isEmpty());
+    		return line;
+    	}
+    	catch (IOException e) {
+    		throw new WIDException("Error reading Work Item Definitions at line " + (in.getLineNumber() + 1), e); //$NON-NLS-1$
+    	}
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2012, 2013, 2014 Red Hat, Inc.
+ *  All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.bpmn2.modeler.core.runtime.CustomTaskDescriptor;
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.Activator;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.resource.ImageDescriptor;
+
+/*
+ * Class: The Work Item Definitions and icons loaded from a project and the jars
+ * on its classpath. The registry is shared by all editors that are open on
+ * files in the same project, so the project is only scanned once.
+ *
+ * A registry is discarded when a *.wid file, an icon in the project's icons
+ * folder, a jar or the project's .classpath file changes; it is rebuilt the
+ * next time an editor is opened on the project. Jars outside the workspace
+ * (e.g. in a Maven repository) are not covered by workspace changes, so the
+ * project's classpath and the size and modification time of its jars are
+ * checked against the {@link WIDCache} each time the registry is requested.
+ */
+public class WIDRegistry {
+
+	private static final ConcurrentMap<IProject, WIDRegistry> registries = new ConcurrentHashMap<IProject, WIDRegistry>();
+	private static IResourceChangeListener resourceChangeListener;
+
+	private final IProject project;
+	private final List<WorkItemDefinition> workItemDefinitions = new ArrayList<WorkItemDefinition>();
+	private final Map<String, ImageDescriptor> icons = new LinkedHashMap<String, ImageDescriptor>();
+	private final Map<WorkItemDefinition, CustomTaskDescriptor> customTaskDescriptors = new IdentityHashMap<WorkItemDefinition, CustomTaskDescriptor>();
+	private final List<File> classpathJars = new ArrayList<File>();
+	private boolean loaded;
+
+	private WIDRegistry(IProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Returns the WID registry for the given project, loading the project's
+	 * WIDs and icons if this has not been done yet.
+	 *
+	 * @param project
+	 * @return the project's WID registry, never null.
+	 * @throws CoreException if the project could not be scanned.
+	 */
+	public static WIDRegistry getInstance(IProject project) throws CoreException {
+		addResourceChangeListener();
+		WIDRegistry registry = registries.get(project);
+		if (registry!=null && !registry.isCurrent()) {
+			registries.remove(project, registry);
+			registry = null;
+		}
+		if (registry==null) {
+			registry = new WIDRegistry(project);
+			WIDRegistry existing = registries.putIfAbsent(project, registry);
+			if (existing!=null)
+				registry = existing;
+		}
+		registry.load();
+		return registry;
+	}
+
+	/**
+	 * Discard all registries and stop listening for workspace changes.
+	 */
+	public static synchronized void dispose() {
+		if (resourceChangeListener!=null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(resourceChangeListener);
+			resourceChangeListener = null;
+		}
+		registries.clear();
+	}
+
+	private synchronized void load() throws CoreException {
+		if (!loaded) {
+			WIDLoader loader = new WIDLoader();
+			loader.load(project);
+			workItemDefinitions.addAll(loader.getClasspathWIDs());
+			icons.putAll(loader.getClasspathIcons());
+			// project icons replace classpath icons with the same name
+			workItemDefinitions.addAll(loader.getProjectWIDs());
+			icons.putAll(loader.getProjectIcons());
+			classpathJars.addAll(loader.getClasspathJars());
+			loaded = true;
+		}
+	}
+
+	/**
+	 * Check if the project's classpath jars are the same ones, with the same
+	 * size and modification time, that this registry was loaded from.
+	 */
+	private synchronized boolean isCurrent() throws CoreException {
+		if (!loaded)
+			return true;
+		if (!classpathJars.equals(WIDLoader.getClasspathJars(project)))
+			return false;
+		WIDCache cache = WIDCache.getInstance(project);
+		for (File jarFile : classpathJars) {
+			if (cache.get(jarFile)==null)
+				return false;
+		}
+		return true;
+	}
+
+	public IProject getProject() {
+		return project;
+	}
+
+	/**
+	 * @return the classpath WIDs followed by the project WIDs.
+	 */
+	public List<WorkItemDefinition> getWorkItemDefinitions() {
+		return Collections.unmodifiableList(workItemDefinitions);
+	}
+
+	/**
+	 * @return the WID icon images, indexed by icon path.
+	 */
+	public Map<String, ImageDescriptor> getIcons() {
+		return Collections.unmodifiableMap(icons);
+	}
+
+	/**
+	 * Returns the Custom Task Descriptor that was created for the given WID.
+	 *
+	 * @param wid one of this registry's WIDs.
+	 * @return the descriptor or null if none has been created yet.
+	 */
+	public synchronized CustomTaskDescriptor getCustomTaskDescriptor(WorkItemDefinition wid) {
+		return customTaskDescriptors.get(wid);
+	}
+
+	public synchronized void putCustomTaskDescriptor(WorkItemDefinition wid, CustomTaskDescriptor ctd) {
+		customTaskDescriptors.put(wid, ctd);
+	}
+
+	private static synchronized void addResourceChangeListener() {
+		if (resourceChangeListener==null) {
+			resourceChangeListener = new WIDResourceChangeListener();
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(resourceChangeListener,
+					IResourceChangeEvent.POST_CHANGE |
+					IResourceChangeEvent.PRE_CLOSE |
+					IResourceChangeEvent.PRE_DELETE);
+		}
+	}
+
+	private static boolean isWIDResource(IResource resource) {
+		if (resource.getType() != IResource.FILE)
+			return false;
+		String name = resource.getName();
+		String extension = resource.getFileExtension();
+		if ("wid".equalsIgnoreCase(extension) || "jar".equalsIgnoreCase(extension)) //$NON-NLS-1$ //$NON-NLS-2$
+			return true;
+		if (".classpath".equals(name) && resource.getParent() == resource.getProject()) //$NON-NLS-1$
+			return true;
+		String folder = resource.getParent().getFullPath().toString();
+		String iconsFolder = resource.getProject().getFullPath().toString() + WIDLoader.ICONS_FOLDER;
+		return folder.equals(iconsFolder) || folder.startsWith(iconsFolder + "/"); //$NON-NLS-1$
+	}
+
+	private static class WIDResourceChangeListener implements IResourceChangeListener, IResourceDeltaVisitor {
+
+		@Override
+		public void resourceChanged(IResourceChangeEvent event) {
+			if (event.getType() == IResourceChangeEvent.PRE_CLOSE ||
+					event.getType() == IResourceChangeEvent.PRE_DELETE) {
+				registries.remove(event.getResource());
+			}
+			else if (event.getDelta()!=null && !registries.isEmpty()) {
+				try {
+					event.getDelta().accept(this);
+				}
+				catch (CoreException e) {
+					Activator.logError(e);
+				}
+			}
+		}
+
+		@Override
+		public boolean visit(IResourceDelta delta) throws CoreException {
+			IResource resource = delta.getResource();
+			switch (resource.getType()) {
+			case IResource.ROOT:
+				return true;
+			case IResource.PROJECT:
+				// only look inside projects that have a registry
+				return registries.containsKey(resource);
+			case IResource.FOLDER:
+				// don't look inside build output folders
+				return !resource.isDerived() && !WIDLoader.isOutputFolder(resource);
+			}
+			// ignore marker and sync info changes
+			if (delta.getKind() == IResourceDelta.CHANGED &&
+					(delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) == 0) {
+				return false;
+			}
+			if (isWIDResource(resource))
+				registries.remove(resource.getProject());
+			return false;
+		}
+	}
+}
@@ -13,8 +13,11 @@
 package org.eclipse.bpmn2.modeler.ui.diagram;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.bpmn2.Bpmn2Package;
 import org.eclipse.bpmn2.Group;
@@ -44,6 +47,8 @@ import org.eclipse.bpmn2.modeler.core.runtime.ToolPaletteDescriptor.ToolPart;
 import org.eclipse.bpmn2.modeler.core.utils.BusinessObjectUtil;
 import org.eclipse.bpmn2.modeler.core.utils.FeatureSupport;
 import org.eclipse.bpmn2.modeler.core.utils.GraphicsUtil;
+import org.eclipse.bpmn2.modeler.core.utils.ModelUtil;
+import org.eclipse.bpmn2.modeler.core.utils.ModelUtil.Bpmn2DiagramType;
 import org.eclipse.bpmn2.modeler.core.utils.ShapeDecoratorUtil;
 import org.eclipse.bpmn2.modeler.core.utils.Tuple;
 import org.eclipse.bpmn2.modeler.core.validation.ValidationStatusAdapter;
@@ -120,6 +125,21 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 	protected List<IPaletteCompartmentEntry> palette;
 	protected CustomKeyCommandFeature commandFeature = null;
 
+	// The palette is only rebuilt if any of the things it was built from change
+	private IPaletteCompartmentEntry[] cachedPalette;
+	private TargetRuntime cachedTargetRuntime;
+	private Bpmn2DiagramType cachedDiagramType;
+	private String cachedProfile;
+	private ModelEnablements cachedModelEnablements;
+	private int cachedEnablementsCount;
+	private int cachedCustomTaskCount;
+
+	// lookup tables built while the palette is constructed
+	private Map<String, CategoryDescriptor> realCategories;
+	private Map<String, ToolDescriptor> realTools;
+	// the owning compartment of each palette tool, indexed on demand
+	private Map<IToolEntry, IPaletteCompartmentEntry> toolCategories = new IdentityHashMap<IToolEntry, IPaletteCompartmentEntry>();
+
 	protected class ProfileSelectionToolEntry extends ToolEntry {
 		DefaultBPMN2Editor editor;
 		
@@ -192,11 +212,26 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 		modelEnablements = editor.getModelEnablements();
 		featureProvider = (BPMN2FeatureProvider)getFeatureProvider();
 
-		palette = new ArrayList<IPaletteCompartmentEntry>();
 		String profile = editor.getPreferences().getDefaultToolProfile(targetRuntime);
+		Bpmn2DiagramType diagramType = ModelUtil.getDiagramType(editor);
+		int enablementsCount = modelEnablements.getModificationCount();
+		int customTaskCount = targetRuntime.getCustomTaskDescriptors().getModificationCount();
+		if (cachedPalette!=null &&
+				cachedTargetRuntime==targetRuntime &&
+				cachedDiagramType==diagramType &&
+				cachedProfile!=null && cachedProfile.equals(profile) &&
+				cachedModelEnablements==modelEnablements &&
+				cachedEnablementsCount==enablementsCount &&
+				cachedCustomTaskCount==customTaskCount) {
+			return cachedPalette.clone();
+		}
+
+		palette = new ArrayList<IPaletteCompartmentEntry>();
 		
 		PaletteCompartmentEntry compartmentEntry = null;
 		categories.clear();
+		toolCategories.clear();
+		buildRealToolIndex();
 		ToolPaletteDescriptor toolPaletteDescriptor = targetRuntime.getToolPalette(profile);
 		if (toolPaletteDescriptor!=null) {
 			boolean needCustomTaskDrawer = true;
@@ -260,28 +295,70 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 			createDefaultpalette();
 		}
 		
-		return palette.toArray(new IPaletteCompartmentEntry[palette.size()]);
+		realCategories = null;
+		realTools = null;
+
+		cachedPalette = palette.toArray(new IPaletteCompartmentEntry[palette.size()]);
+		cachedTargetRuntime = targetRuntime;
+		cachedDiagramType = diagramType;
+		cachedProfile = profile;
+		cachedModelEnablements = modelEnablements;
+		cachedEnablementsCount = enablementsCount;
+		cachedCustomTaskCount = customTaskCount;
+		return cachedPalette.clone();
+	}
+
+	/**
+	 * Discard the cached palette so that it is rebuilt the next time
+	 * {@link #getPalette()} is called. This must be called when a preference
+	 * that affects the contents of the palette has changed.
+	 */
+	public void invalidatePalette() {
+		cachedPalette = null;
 	}
 	
-	private CategoryDescriptor getRealCategory(TargetRuntime rt, CategoryDescriptor category) {
-		String fromPalette = category.getFromPalette();
-		String id = category.getId();
-		if (fromPalette!=null && id!=null) {
-			for (TargetRuntime otherRt : TargetRuntime.createTargetRuntimes()) {
-//				if (otherRt!=rt)
-				{
-					for (ToolPaletteDescriptor tp : otherRt.getToolPaletteDescriptors()) {
-						if ( fromPalette.equals(tp.getId())) {
-							for (CategoryDescriptor c : tp.getCategories()) {
-								if (id.equals(c.getId())) {
-									return c;
-								}
-							}
+	private static String getRealToolKey(String fromPalette, String id) {
+		return fromPalette + "/" + id; //$NON-NLS-1$
+	}
+	
+	/**
+	 * Index the categories and tools of all Tool Palettes in all Target
+	 * Runtimes by palette ID and category or tool ID. Where IDs are duplicated,
+	 * the first one found wins.
+	 */
+	private void buildRealToolIndex() {
+		realCategories = new HashMap<String, CategoryDescriptor>();
+		realTools = new HashMap<String, ToolDescriptor>();
+		for (TargetRuntime otherRt : TargetRuntime.createTargetRuntimes()) {
+			for (ToolPaletteDescriptor tp : otherRt.getToolPaletteDescriptors()) {
+				if (tp.getId()==null)
+					continue;
+				for (CategoryDescriptor c : tp.getCategories()) {
+					if (c.getId()!=null) {
+						String key = getRealToolKey(tp.getId(), c.getId());
+						if (!realCategories.containsKey(key))
+							realCategories.put(key, c);
+					}
+					for (ToolDescriptor t : c.getTools()) {
+						if (t.getId()!=null) {
+							String key = getRealToolKey(tp.getId(), t.getId());
+							if (!realTools.containsKey(key))
+								realTools.put(key, t);
 						}
 					}
 				}
 			}
 		}
+	}
+	
+	private CategoryDescriptor getRealCategory(TargetRuntime rt, CategoryDescriptor category) {
+		String fromPalette = category.getFromPalette();
+		String id = category.getId();
+		if (fromPalette!=null && id!=null) {
+			CategoryDescriptor c = realCategories.get(getRealToolKey(fromPalette, id));
+			if (c!=null)
+				return c;
+		}
 		return category;
 	}
 	
@@ -289,22 +366,9 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 		String fromPalette = tool.getFromPalette();
 		String id = tool.getId();
 		if (fromPalette!=null && id!=null) {
-			for (TargetRuntime otherRt : TargetRuntime.createTargetRuntimes()) {
-//				if (otherRt!=rt) 
-				{
-					for (ToolPaletteDescriptor tp : otherRt.getToolPaletteDescriptors()) {
-						if ( fromPalette.equals(tp.getId())) {
-							for (CategoryDescriptor c : tp.getCategories()) {
-								for (ToolDescriptor t : c.getTools()) {
-									if (id.equals(t.getId())) {
-										return t;
-									}
-								}
-							}
-						}
-					}
-				}
-			}
+			ToolDescriptor t = realTools.get(getRealToolKey(fromPalette, id));
+			if (t!=null)
+				return t;
 		}
 		return tool;
 	}
@@ -360,13 +424,20 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 		if (palette==null)
 			getPalette();
 		
-		for (IPaletteCompartmentEntry ce : palette) {
-			for (IToolEntry te : ce.getToolEntries()) {
-				if (te == tool)
-					return ce;
+		IPaletteCompartmentEntry category = toolCategories.get(tool);
+		if (category==null) {
+			// tools may have been added to the palette since it was last
+			// indexed, so index it again before giving up
+			toolCategories.clear();
+			for (IPaletteCompartmentEntry ce : palette) {
+				for (IToolEntry te : ce.getToolEntries()) {
+					if (!toolCategories.containsKey(te))
+						toolCategories.put(te, ce);
+				}
 			}
+			category = toolCategories.get(tool);
 		}
-		return null;
+		return category;
 	}
 	
 	private IFeature getCreateFeature(ToolDescriptor tool) {
@@ -813,10 +884,10 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 		return super.getChopboxAnchorArea(pe);
 	}
 
+    private static final IDecorator[] NO_DECORATORS = new IDecorator[0];
+
     @Override
     public IDecorator[] getDecorators(PictogramElement pe) {
-        List<IDecorator> decorators = new ArrayList<IDecorator>();
-
 		if (ShapeDecoratorUtil.isValidationDecorator(pe)) {
 	        IFeatureProvider featureProvider = getFeatureProvider();
 	        Object bo = featureProvider.getBusinessObjectForPictogramElement((PictogramElement) pe.eContainer());
@@ -824,31 +895,38 @@ public class Bpmn2ToolBehaviorProvider extends DefaultToolBehaviorProvider imple
 		        ValidationStatusAdapter statusAdapter = (ValidationStatusAdapter) EcoreUtil.getRegisteredAdapter((EObject) bo,
 		                ValidationStatusAdapter.class);
 		        if (statusAdapter != null) {
-		            IImageDecorator decorator;
-		            IStatus status = statusAdapter.getValidationStatus();
-		            switch (status.getSeverity()) {
-		            case IStatus.INFO:
-		                decorator = new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_INFORMATION_TSK);
-		                break;
-		            case IStatus.WARNING:
-		                decorator = new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_WARNING_TSK);
-		                break;
-		            case IStatus.ERROR:
-		                decorator = new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_ERROR_TSK);
-		                break;
-		            default:
-		                decorator = null;
-		                break;
-		            }
-		            if (decorator != null) {
-		                decorator.setMessage(status.getMessage());
-		                decorators.add(decorator);
-		            }
+		        	// the decorators are only recreated when the validation status changes
+		        	IDecorator[] decorators = statusAdapter.getDecorators();
+		        	if (decorators == null) {
+		        		int revision = statusAdapter.getRevision();
+		        		decorators = createDecorators(statusAdapter.getValidationStatus());
+		        		statusAdapter.setDecorators(decorators, revision);
+		        	}
+		        	return decorators;
 		        }
 	        }
 		}
 		
-        return decorators.toArray(new IDecorator[decorators.size()]);
+        return NO_DECORATORS;
+    }
+
+    private IDecorator[] createDecorators(IStatus status) {
+        IImageDecorator decorator;
+        switch (status.getSeverity()) {
+        case IStatus.INFO:
+            decorator = new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_INFORMATION_TSK);
+            break;
+        case IStatus.WARNING:
+            decorator = new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_WARNING_TSK);
+            break;
+        case IStatus.ERROR:
+            decorator = new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_ERROR_TSK);
+            break;
+        default:
+            return NO_DECORATORS;
+        }
+        decorator.setMessage(status.getMessage());
+        return new IDecorator[] { decorator };
     }
 
 	@Override
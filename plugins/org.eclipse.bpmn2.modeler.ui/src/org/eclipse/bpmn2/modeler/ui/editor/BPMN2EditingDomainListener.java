@@ -12,22 +12,41 @@
  ******************************************************************************/
 package org.eclipse.bpmn2.modeler.ui.editor;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import org.eclipse.bpmn2.modeler.core.LifecycleEvent;
 import org.eclipse.bpmn2.modeler.core.LifecycleEvent.EventType;
 import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntime;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.transaction.ExceptionHandler;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.Transaction;
 import org.eclipse.emf.transaction.TransactionalCommandStack;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.emf.transaction.TransactionalEditingDomainEvent;
 import org.eclipse.emf.transaction.TransactionalEditingDomainListenerImpl;
+import org.eclipse.graphiti.mm.MmPackage;
 
 public class BPMN2EditingDomainListener extends TransactionalEditingDomainListenerImpl implements ExceptionHandler {
 	
 	protected BasicDiagnostic diagnostics;
 	private DefaultBPMN2Editor bpmn2Editor;
+	private boolean coalesceTransactionEvents;
+	// collects the business objects changed by each outermost transaction
+	private ChangedObjectsListener changedObjectsListener;
+	// the last committed transaction that changed anything, and its changes
+	private Transaction changedTransaction;
+	private Collection<EObject> changedObjects;
 
 	public BPMN2EditingDomainListener(DefaultBPMN2Editor bpmn2Editor) {
 		super();
@@ -36,31 +55,127 @@ public class BPMN2EditingDomainListener extends TransactionalEditingDomainListen
 		stack.setExceptionHandler(this);
 	}
 
+	/**
+	 * Enable or disable coalescing of Transaction Lifecycle Events.
+	 * <p>
+	 * By default, TRANSACTION_STARTING, TRANSACTION_CLOSED and
+	 * TRANSACTION_INTERRUPTED events are sent to the Target Runtime for every
+	 * transaction, including read-only transactions. If coalescing is enabled,
+	 * these events are only sent for outermost read-write transactions, and
+	 * the TRANSACTION_CLOSED event will carry a summary of the business
+	 * objects that were changed by the transaction and all of its nested
+	 * transactions in {@link LifecycleEvent#changedObjects}.
+	 * 
+	 * @param coalesce true to enable coalescing.
+	 */
+	public void setCoalesceTransactionEvents(boolean coalesce) {
+		if (coalesceTransactionEvents==coalesce)
+			return;
+		coalesceTransactionEvents = coalesce;
+		TransactionalEditingDomain domain = bpmn2Editor.getEditingDomain();
+		if (coalesce) {
+			changedObjectsListener = new ChangedObjectsListener();
+			if (domain!=null)
+				domain.addResourceSetListener(changedObjectsListener);
+		}
+		else {
+			if (domain!=null && changedObjectsListener!=null)
+				domain.removeResourceSetListener(changedObjectsListener);
+			changedObjectsListener = null;
+			changedTransaction = null;
+			changedObjects = null;
+		}
+	}
+
+	public boolean isCoalesceTransactionEvents() {
+		return coalesceTransactionEvents;
+	}
+
+	private boolean isNotifying(Transaction transaction) {
+		if (!coalesceTransactionEvents)
+			return true;
+		return transaction!=null && transaction.getParent()==null && !transaction.isReadOnly();
+	}
+
 	@Override
 	public void transactionStarting(TransactionalEditingDomainEvent event) {
 		diagnostics = null;
 		super.transactionStarting(event);
+		if (!isNotifying(event.getTransaction()))
+			return;
 		TargetRuntime rt = TargetRuntime.getRuntime(bpmn2Editor);
 		LifecycleEvent.notify(new LifecycleEvent(EventType.TRANSACTION_STARTING, event.getTransaction(), rt));
 	}
-	
+
 	/**
 	 * this will be called in case of rollback
 	 */
 	@Override
 	public void transactionClosed(TransactionalEditingDomainEvent event) {
 		super.transactionClosed(event);
+		// post-commit listeners have already been told about the changes made
+		// by a committed transaction; a rolled back transaction has none
+		Collection<EObject> changed = null;
+		if (changedTransaction==event.getTransaction())
+			changed = changedObjects;
+		if (!isNotifying(event.getTransaction()))
+			return;
+		changedTransaction = null;
+		changedObjects = null;
 		TargetRuntime rt = TargetRuntime.getRuntime(bpmn2Editor);
-		LifecycleEvent.notify(new LifecycleEvent(EventType.TRANSACTION_CLOSED, event.getTransaction(), rt));
+		LifecycleEvent lifecycleEvent = new LifecycleEvent(EventType.TRANSACTION_CLOSED, event.getTransaction(), rt);
+		if (coalesceTransactionEvents) {
+			if (changed==null)
+				changed = Collections.emptySet();
+			lifecycleEvent.changedObjects = changed;
+		}
+		LifecycleEvent.notify(lifecycleEvent);
 	}
 	
 	@Override
 	public void transactionInterrupted(TransactionalEditingDomainEvent event) {
 		super.transactionInterrupted(event);
+		if (!isNotifying(event.getTransaction()))
+			return;
+		changedTransaction = null;
+		changedObjects = null;
 		TargetRuntime rt = TargetRuntime.getRuntime(bpmn2Editor);
 		LifecycleEvent.notify(new LifecycleEvent(EventType.TRANSACTION_INTERRUPTED, event.getTransaction(), rt));
 	}
 
+	/**
+	 * Collects the business objects changed by an outermost read-write
+	 * transaction, including its nested transactions, for the coalesced
+	 * TRANSACTION_CLOSED event. Graphiti model objects are left out.
+	 */
+	private class ChangedObjectsListener extends ResourceSetListenerImpl {
+
+		@Override
+		public boolean isPostcommitOnly() {
+			return true;
+		}
+
+		@Override
+		public void resourceSetChanged(ResourceSetChangeEvent event) {
+			Set<EObject> result = new LinkedHashSet<EObject>();
+			for (Notification n : event.getNotifications()) {
+				if (n.getNotifier() instanceof EObject) {
+					EObject object = (EObject) n.getNotifier();
+					if (!isGraphitiObject(object))
+						result.add(object);
+				}
+			}
+			changedTransaction = event.getTransaction();
+			changedObjects = Collections.unmodifiableSet(result);
+		}
+	}
+
+	private static boolean isGraphitiObject(EObject object) {
+		EPackage pkg = object.eClass().getEPackage();
+		String nsURI = pkg==null ? null : pkg.getNsURI();
+		return nsURI!=null && nsURI.startsWith(MmPackage.eNS_URI);
+	}
+
 	@Override
 	public void handleException(Exception e) {
 		String source = null;
@@ -769,6 +769,11 @@ public class DefaultBPMN2Editor extends DiagramEditor implements IPreferenceChan
 		if (event.getKey().contains("/"+Bpmn2Preferences.PREF_MODEL_ENABLEMENT+"/")) //$NON-NLS-1$ //$NON-NLS-2$
 			modelEnablements = null;
 
+		if (getDiagramTypeProvider()!=null &&
+				getDiagramTypeProvider().getCurrentToolBehaviorProvider() instanceof Bpmn2ToolBehaviorProvider) {
+			((Bpmn2ToolBehaviorProvider)getDiagramTypeProvider().getCurrentToolBehaviorProvider()).invalidatePalette();
+		}
+
 		if (event.getKey().contains(Bpmn2Preferences.PREF_SHOW_ADVANCED_PROPERTIES) ||
 				event.getKey().contains("/"+Bpmn2Preferences.PREF_TOOL_PROFILE+"/")) { //$NON-NLS-1$ //$NON-NLS-2$
 			// get rid of cached Property Tab Descriptors
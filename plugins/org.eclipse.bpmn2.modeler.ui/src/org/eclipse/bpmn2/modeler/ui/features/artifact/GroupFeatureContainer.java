@@ -13,7 +13,10 @@
 package org.eclipse.bpmn2.modeler.ui.features.artifact;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.bpmn2.BaseElement;
 import org.eclipse.bpmn2.BoundaryEvent;
@@ -33,6 +36,7 @@ import org.eclipse.bpmn2.modeler.core.features.label.UpdateLabelFeature;
 import org.eclipse.bpmn2.modeler.core.preferences.ShapeStyle.LabelPosition;
 import org.eclipse.bpmn2.modeler.core.utils.BusinessObjectUtil;
 import org.eclipse.bpmn2.modeler.core.utils.FeatureSupport;
+import org.eclipse.bpmn2.modeler.core.utils.ShapeGridIndex;
 import org.eclipse.bpmn2.modeler.core.utils.StyleUtil;
 import org.eclipse.bpmn2.modeler.ui.ImageProvider;
 import org.eclipse.bpmn2.modeler.ui.features.AbstractDefaultDeleteFeature;
@@ -267,6 +271,7 @@ public class GroupFeatureContainer extends BaseElementFeatureContainer {
 			super(fp);
 		}
 		List<ContainerShape> containedShapes = new ArrayList<ContainerShape>();
+		ShapeGridIndex index;
 
 		@Override
 		public boolean canMoveShape(IMoveShapeContext context) {
@@ -292,7 +297,8 @@ public class GroupFeatureContainer extends BaseElementFeatureContainer {
 	
 				// find all shapes that are inside this Group
 				// these will be moved along with the Group
-				containedShapes = FeatureSupport.findGroupedShapes((ContainerShape) pe);
+				index = new ShapeGridIndex(getDiagram());
+				containedShapes = FeatureSupport.findGroupedShapes((ContainerShape) pe, index);
 			}
 		}
 
@@ -320,11 +326,20 @@ public class GroupFeatureContainer extends BaseElementFeatureContainer {
 						mf.moveShape(mc);
 					}
 				}
-				for (ContainerShape cs : FeatureSupport.findGroupedShapes((ContainerShape) pe)) {
-					if (!containedShapes.contains(cs)) {
+				// only the Group and its contents have moved, so the index
+				// can be updated instead of being rebuilt
+				Set<ContainerShape> found = Collections.newSetFromMap(new IdentityHashMap<ContainerShape, Boolean>());
+				for (ContainerShape shape : containedShapes) {
+					index.update(shape);
+					found.add(shape);
+				}
+				index.update((ContainerShape) pe);
+				for (ContainerShape cs : FeatureSupport.findGroupedShapes((ContainerShape) pe, index)) {
+					if (found.add(cs)) {
 						containedShapes.add(cs);
 					}
 				}
+				index = null;
 				FeatureSupport.updateConnections(getFeatureProvider(), containedShapes);
 				FeatureSupport.updateCategoryValues(getFeatureProvider(), containedShapes);
 			}
@@ -346,7 +361,10 @@ public class GroupFeatureContainer extends BaseElementFeatureContainer {
 		@Override
 		public void resizeShape(IResizeShapeContext context) {
 			ContainerShape groupShape = (ContainerShape) context.getPictogramElement();
-			List<ContainerShape> containedShapesBeforeResize = FeatureSupport.findGroupedShapes(groupShape);
+			// only the Group changes size, so the other shapes' bounds can be
+			// indexed once and used to find the grouped shapes before and after
+			ShapeGridIndex index = new ShapeGridIndex(getDiagram());
+			List<ContainerShape> containedShapesBeforeResize = FeatureSupport.findGroupedShapes(groupShape, index);
 
 			int x = context.getX();
 			int y = context.getY();
@@ -372,7 +390,7 @@ public class GroupFeatureContainer extends BaseElementFeatureContainer {
 			DIUtils.updateDIShape(groupShape);
 			FeatureSupport.updateLabel(getFeatureProvider(), groupShape, null);
 
-			List<ContainerShape> containedShapesAfterResize = FeatureSupport.findGroupedShapes(groupShape);
+			List<ContainerShape> containedShapesAfterResize = FeatureSupport.findGroupedShapes(groupShape, index);
 			FeatureSupport.updateCategoryValues(getFeatureProvider(), containedShapesBeforeResize);
 			FeatureSupport.updateCategoryValues(getFeatureProvider(), containedShapesAfterResize);
 			
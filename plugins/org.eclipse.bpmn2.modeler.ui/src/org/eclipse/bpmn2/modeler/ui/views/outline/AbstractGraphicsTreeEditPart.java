@@ -18,13 +18,18 @@ import org.eclipse.bpmn2.modeler.ui.property.PropertyLabelProvider;
 import org.eclipse.bpmn2.modeler.ui.util.PropertyUtil;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.gef.editparts.AbstractTreeEditPart;
 import org.eclipse.graphiti.mm.pictograms.ContainerShape;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.mm.pictograms.FreeFormConnection;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
 import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.swt.widgets.Widget;
 
 /**
  * 
@@ -33,6 +38,12 @@ public class AbstractGraphicsTreeEditPart extends AbstractTreeEditPart {
 
 	DiagramTreeEditPart diagramEditPart;
 	PropertyLabelProvider labelProvider = new PropertyLabelProvider();
+	// The children of this edit part are only created when its tree item is
+	// expanded for the first time. Until then the tree item holds an empty
+	// placeholder item if the model has any children, so that it can be expanded.
+	private boolean childrenLoaded;
+	private boolean hasChildren;
+	private TreeItem placeholder;
 	
 	public AbstractGraphicsTreeEditPart(DiagramTreeEditPart dep, Object model) {
 		super(model);
@@ -72,6 +83,11 @@ public class AbstractGraphicsTreeEditPart extends AbstractTreeEditPart {
 	}
 
 	protected void refreshChildren() {
+		if (!isChildrenLoaded()) {
+			updatePlaceholder(hasModelChildren());
+			refreshVisuals();
+			return;
+		}
 		super.refreshChildren();
 		if (children!=null) {
 			for (Object child : children) {
@@ -83,6 +99,93 @@ public class AbstractGraphicsTreeEditPart extends AbstractTreeEditPart {
 		refreshVisuals();
 	}
 	
+	/**
+	 * Refresh the visuals and the list of children of this edit part only. The
+	 * children themselves are not refreshed, except for newly created ones.
+	 */
+	public void refreshPart() {
+		try {
+			if (isChildrenLoaded())
+				super.refreshChildren();
+			else
+				updatePlaceholder(hasModelChildren());
+			refreshVisuals();
+		}
+		catch (Exception e) {
+			// see refresh()
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * @return true if the children of this edit part have been created.
+	 */
+	public boolean isChildrenLoaded() {
+		return childrenLoaded;
+	}
+	
+	/**
+	 * Create the children of this edit part if this has not been done yet.
+	 * This is called when the tree item is expanded for the first time.
+	 */
+	public void loadChildren() {
+		if (!childrenLoaded) {
+			childrenLoaded = true;
+			updatePlaceholder(false);
+			refreshPart();
+		}
+	}
+	
+	/**
+	 * Check if this edit part has any children, without creating them.
+	 * Subclasses may override this if there is a cheaper way of finding out
+	 * than computing the list of model children.
+	 * 
+	 * @return true if {@link #getModelChildren()} is not empty.
+	 */
+	protected boolean hasModelChildren() {
+		return !getModelChildren().isEmpty();
+	}
+	
+	/**
+	 * Check if the given object may be displayed somewhere below this edit
+	 * part. This is used to decide which edit parts must load their children
+	 * to find the edit part for an object that has not been created yet.
+	 * 
+	 * @param object a model object
+	 * @return true if the object is contained in this edit part's model object.
+	 */
+	protected boolean mayContain(EObject object) {
+		Object model = getModel();
+		return model instanceof EObject && EcoreUtil.isAncestor((EObject)model, object);
+	}
+	
+	private void updatePlaceholder(boolean hasChildren) {
+		this.hasChildren = hasChildren;
+		Widget widget = getWidget();
+		if (hasChildren && !childrenLoaded && widget instanceof TreeItem && !widget.isDisposed()) {
+			if (placeholder==null || placeholder.isDisposed())
+				placeholder = new TreeItem((TreeItem)widget, SWT.NONE);
+		}
+		else if (placeholder!=null) {
+			if (!placeholder.isDisposed())
+				placeholder.dispose();
+			placeholder = null;
+		}
+	}
+	
+	@Override
+	public void setWidget(Widget widget) {
+		if (placeholder!=null && !placeholder.isDisposed() && placeholder.getParentItem()!=widget)
+			placeholder.dispose();
+		placeholder = null;
+		// the children of the top level edit part are always shown
+		if (widget instanceof Tree)
+			childrenLoaded = true;
+		super.setWidget(widget);
+		updatePlaceholder(hasChildren);
+	}
+	
 	/**
 	 * This method is called from refreshVisuals(), to display the image of the
 	 * TreeItem.
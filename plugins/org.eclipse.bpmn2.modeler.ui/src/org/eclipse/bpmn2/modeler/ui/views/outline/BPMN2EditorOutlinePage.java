@@ -10,16 +10,33 @@
  *******************************************************************************/
 package org.eclipse.bpmn2.modeler.ui.views.outline;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.bpmn2.Definitions;
+import org.eclipse.bpmn2.Participant;
+import org.eclipse.bpmn2.modeler.core.di.DIUtils;
 import org.eclipse.bpmn2.modeler.core.merrimac.dialogs.ObjectEditingDialog;
 import org.eclipse.bpmn2.modeler.help.IHelpContexts;
 import org.eclipse.bpmn2.modeler.ui.Activator;
 import org.eclipse.bpmn2.modeler.ui.IConstants;
 import org.eclipse.bpmn2.modeler.ui.editor.BPMN2Editor;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.dd.di.DiagramElement;
 import org.eclipse.draw2d.LightweightSystem;
 import org.eclipse.draw2d.MarginBorder;
 import org.eclipse.draw2d.Viewport;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListener;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.gef.ContextMenuProvider;
 import org.eclipse.gef.EditDomain;
 import org.eclipse.gef.EditPart;
@@ -32,6 +49,7 @@ import org.eclipse.gef.editparts.ScalableFreeformRootEditPart;
 import org.eclipse.gef.ui.actions.ActionRegistry;
 import org.eclipse.gef.ui.parts.ContentOutlinePage;
 import org.eclipse.gef.ui.parts.SelectionSynchronizer;
+import org.eclipse.graphiti.mm.MmPackage;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.ui.editor.DiagramEditor;
 import org.eclipse.graphiti.ui.internal.fixed.FixedScrollableThumbnail;
@@ -48,10 +66,12 @@ import org.eclipse.swt.events.MouseListener;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.ui.IActionBars;
+import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IPropertyListener;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.about.AboutAction;
@@ -110,6 +130,9 @@ public class BPMN2EditorOutlinePage extends ContentOutlinePage implements IPrope
 
 	private Canvas overview;
 
+	// refreshes the tree edit parts of the objects changed by each transaction
+	private ResourceSetListener modelChangeListener;
+
 	/**
 	 * Creates a new BPMN2EditorOutlinePage. It is important, that this
 	 * outline page uses the same handlers (ActionRegistry, KeyHandler,
@@ -177,6 +200,11 @@ public class BPMN2EditorOutlinePage extends ContentOutlinePage implements IPrope
 		// register listeners
 		selectionSynchronizer.addViewer(getViewer());
 		diagramEditor.addPropertyListener(this);
+		TransactionalEditingDomain domain = diagramEditor.getEditingDomain();
+		if (domain!=null) {
+			modelChangeListener = new ModelChangeListener();
+			domain.addResourceSetListener(modelChangeListener);
+		}
 		
 		addContextMenu(getViewer());
 		
@@ -242,6 +270,12 @@ public class BPMN2EditorOutlinePage extends ContentOutlinePage implements IPrope
 		// deregister listeners
 		selectionSynchronizer.removeViewer(getViewer());
 		diagramEditor.removePropertyListener(this);
+		if (modelChangeListener!=null) {
+			TransactionalEditingDomain domain = diagramEditor.getEditingDomain();
+			if (domain!=null)
+				domain.removeResourceSetListener(modelChangeListener);
+			modelChangeListener = null;
+		}
 
 		if (thumbnail != null)
 			thumbnail.deactivate();
@@ -263,11 +297,13 @@ public class BPMN2EditorOutlinePage extends ContentOutlinePage implements IPrope
 	}
 
 	/**
-	 * Refreshes the outline on any change of the diagram editor. Most
-	 * importantly, there is a property change event editor-dirty.
+	 * Refreshes the outline on any change of the diagram editor. Model changes
+	 * are handled by the ModelChangeListener, so the editor-dirty property
+	 * change event is ignored unless there is no such listener.
 	 */
 	public void propertyChanged(Object source, int propId) {
-		refresh();
+		if (propId!=IEditorPart.PROP_DIRTY || modelChangeListener==null)
+			refresh();
 	}
 	
 	public Object getAdapter(Class key) {
@@ -411,6 +447,64 @@ public class BPMN2EditorOutlinePage extends ContentOutlinePage implements IPrope
 			actionBars.setGlobalActionHandler(id, action);
 	}
 
+	/**
+	 * Refresh only the tree edit parts whose model objects were changed, and
+	 * their parents.
+	 * 
+	 * @param changed the changed model objects
+	 * @param refreshContents if true, the list of top level elements is also refreshed
+	 * @param graphicsChanged if true, Graphiti shapes have been changed;
+	 *            Groups are refreshed because their children depend on the
+	 *            location of the shapes.
+	 */
+	void refresh(Collection<EObject> changed, boolean refreshContents, boolean graphicsChanged) {
+		try {
+			final EditPartViewer viewer = getViewer();
+			final EditPart contents = viewer.getContents();
+			if (contents == null || viewer.getControl() == null || viewer.getControl().isDisposed())
+				return;
+			Map registry = viewer.getEditPartRegistry();
+			Set<AbstractGraphicsTreeEditPart> parts = new LinkedHashSet<AbstractGraphicsTreeEditPart>();
+			if (refreshContents && contents instanceof AbstractGraphicsTreeEditPart)
+				parts.add((AbstractGraphicsTreeEditPart) contents);
+			boolean interchangeModel = interchangeModelEditPartFactory!=null &&
+					viewer.getEditPartFactory()==interchangeModelEditPartFactory;
+			for (EObject o : changed) {
+				Object part = registry.get(o);
+				if (part==null && interchangeModel) {
+					// the DI element shows the name of its BPMN2 element
+					DiagramElement de = DIUtils.findDiagramElement(o);
+					if (de!=null)
+						part = registry.get(de);
+				}
+				if (part instanceof AbstractGraphicsTreeEditPart) {
+					parts.add((AbstractGraphicsTreeEditPart) part);
+					// the parent's list of children may depend on the changed object;
+					// the top level list is only refreshed when requested
+					EditPart parent = ((EditPart) part).getParent();
+					if (parent instanceof AbstractGraphicsTreeEditPart && parent != contents)
+						parts.add((AbstractGraphicsTreeEditPart) parent);
+				}
+			}
+			if (graphicsChanged) {
+				// Groups that have not been expanded yet don't need to know
+				// which shapes they contain
+				for (Object part : registry.values().toArray()) {
+					if (part instanceof GroupTreeEditPart && ((GroupTreeEditPart) part).isChildrenLoaded())
+						parts.add((GroupTreeEditPart) part);
+				}
+			}
+			for (AbstractGraphicsTreeEditPart part : parts) {
+				// the part may have been removed by refreshing its parent
+				if (part.getParent() != null)
+					part.refreshPart();
+			}
+		}
+		catch (Exception e) {
+			// ignore SWT exceptions caused by closing the editor
+		}
+	}
+
 	/**
 	 * Refresh.
 	 */
@@ -426,4 +520,80 @@ public class BPMN2EditorOutlinePage extends ContentOutlinePage implements IPrope
 			// ignore SWT exceptions caused by closing the editor
 		}
 	}
+
+	private static boolean isGraphitiObject(EObject object) {
+		EPackage pkg = object.eClass().getEPackage();
+		String nsURI = pkg==null ? null : pkg.getNsURI();
+		return nsURI!=null && nsURI.startsWith(MmPackage.eNS_URI);
+	}
+
+	/**
+	 * Collects the BPMN2 model objects that were changed by a transaction,
+	 * including objects that were added to or removed from a reference, and
+	 * refreshes their tree edit parts.
+	 */
+	private class ModelChangeListener extends ResourceSetListenerImpl {
+
+		@Override
+		public boolean isPostcommitOnly() {
+			return true;
+		}
+
+		@Override
+		public void resourceSetChanged(ResourceSetChangeEvent event) {
+			final Set<EObject> changed = new LinkedHashSet<EObject>();
+			boolean refreshContents = false;
+			boolean graphicsChanged = false;
+			for (Notification n : event.getNotifications()) {
+				if (n.getNotifier() instanceof Resource) {
+					// a Resource was loaded or unloaded
+					if (n.getFeatureID(Resource.class)==Resource.RESOURCE__CONTENTS)
+						refreshContents = true;
+					continue;
+				}
+				if (!(n.getNotifier() instanceof EObject))
+					continue;
+				EObject notifier = (EObject) n.getNotifier();
+				if (isGraphitiObject(notifier)) {
+					graphicsChanged = true;
+					continue;
+				}
+				// the top level list depends on the Definitions' root elements
+				// and on the Processes referenced by Pools
+				if (notifier instanceof Definitions || notifier instanceof Participant)
+					refreshContents = true;
+				changed.add(notifier);
+				if (n.getFeature() instanceof EReference) {
+					addValue(changed, n.getOldValue());
+					addValue(changed, n.getNewValue());
+				}
+			}
+			if (changed.isEmpty() && !refreshContents && !graphicsChanged)
+				return;
+
+			final boolean rc = refreshContents;
+			final boolean gc = graphicsChanged;
+			Runnable runnable = new Runnable() {
+				@Override
+				public void run() {
+					refresh(changed, rc, gc);
+				}
+			};
+			if (Display.getCurrent()!=null)
+				runnable.run();
+			else
+				Display.getDefault().asyncExec(runnable);
+		}
+
+		private void addValue(Set<EObject> changed, Object value) {
+			if (value instanceof EObject)
+				changed.add((EObject) value);
+			else if (value instanceof Collection) {
+				for (Object o : (Collection) value) {
+					if (o instanceof EObject)
+						changed.add((EObject) o);
+				}
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -10,6 +10,9 @@
  ******************************************************************************/
 package org.eclipse.bpmn2.modeler.ui.views.outline;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.bpmn2.BaseElement;
 import org.eclipse.bpmn2.di.BPMNDiagram;
 import org.eclipse.bpmn2.modeler.core.utils.BusinessObjectUtil;
@@ -26,15 +29,71 @@ import org.eclipse.graphiti.services.Graphiti;
 import org.eclipse.graphiti.ui.editor.DiagramEditor;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
 
 public class BPMN2EditorOutlineTreeViewer extends TreeViewer implements Adaptable {
 
 	protected DiagramEditor diagramEditor;
 	
+	// creates the children of a tree edit part when it is expanded for the first time
+	private Listener expandListener = new Listener() {
+		@Override
+		public void handleEvent(Event event) {
+			if (event.item!=null && event.item.getData() instanceof AbstractGraphicsTreeEditPart) {
+				((AbstractGraphicsTreeEditPart)event.item.getData()).loadChildren();
+			}
+		}
+	};
+	
 	public BPMN2EditorOutlineTreeViewer(DiagramEditor diagramEditor) {
 		this.diagramEditor = diagramEditor;
 	}
 	
+	@Override
+	protected void hookControl() {
+		super.hookControl();
+		getControl().addListener(SWT.Expand, expandListener);
+	}
+	
+	@Override
+	protected void unhookControl() {
+		if (getControl()!=null && !getControl().isDisposed())
+			getControl().removeListener(SWT.Expand, expandListener);
+		super.unhookControl();
+	}
+	
+	/**
+	 * Find the tree edit part for the given model object. The children of a
+	 * tree edit part are not created until it is expanded, so this will load
+	 * the children of any collapsed edit parts that may contain the object.
+	 * 
+	 * @param model a BPMN2 model object
+	 * @return the edit part or null if the object is not shown in the tree.
+	 */
+	public EditPart findEditPart(Object model) {
+		EditPart part = (EditPart)getEditPartRegistry().get(model);
+		while (part==null && model instanceof EObject) {
+			AbstractGraphicsTreeEditPart container = null;
+			List<Object> parts = new ArrayList<Object>(getEditPartRegistry().values());
+			for (Object p : parts) {
+				if (p instanceof AbstractGraphicsTreeEditPart) {
+					AbstractGraphicsTreeEditPart tp = (AbstractGraphicsTreeEditPart)p;
+					if (!tp.isChildrenLoaded() && tp.mayContain((EObject)model)) {
+						container = tp;
+						break;
+					}
+				}
+			}
+			if (container==null)
+				break;
+			container.loadChildren();
+			part = (EditPart)getEditPartRegistry().get(model);
+		}
+		return part;
+	}
+	
 	public EditPart convert(EditPart part) {
 		Object model = part.getModel();
 		if (model instanceof PictogramElement) {
@@ -47,7 +106,7 @@ public class BPMN2EditorOutlineTreeViewer extends TreeViewer implements Adaptabl
 				bpmnModel = bpmnDiagram.getPlane().getBpmnElement();
 			}
 
-			return (EditPart)getEditPartRegistry().get(bpmnModel);
+			return findEditPart(bpmnModel);
 		}
 		return part;
 	}
@@ -105,6 +105,60 @@ public class FlowElementTreeEditPart extends AbstractGraphicsTreeEditPart {
 		return retList;
 	}
 	
+	@Override
+	protected boolean hasModelChildren() {
+		FlowElement elem = getFlowElement();
+		if (elem instanceof FlowElementsContainer) {
+			FlowElementsContainer container = (FlowElementsContainer)elem;
+			if (container.getFlowElements().size()>0 || container.getLaneSets().size()>0)
+				return true;
+			if (container instanceof SubProcess)
+				return ((SubProcess)container).getArtifacts().size()>0;
+			if (container instanceof SubChoreography)
+				return ((SubChoreography)container).getArtifacts().size()>0;
+			return false;
+		}
+		if (elem instanceof ChoreographyActivity)
+			return ((ChoreographyActivity)elem).getParticipantRefs().size()>0;
+		if (elem instanceof CatchEvent) {
+			if (((CatchEvent)elem).getEventDefinitions().size()>0 ||
+					((CatchEvent)elem).getDataOutputAssociation().size()>0)
+				return true;
+		}
+		else if (elem instanceof ThrowEvent) {
+			if (((ThrowEvent)elem).getEventDefinitions().size()>0 ||
+					((ThrowEvent)elem).getDataInputAssociation().size()>0)
+				return true;
+		}
+		if (elem instanceof Activity) {
+			Activity activity = (Activity)elem;
+			if (activity.getDataInputAssociations().size()>0 || activity.getDataOutputAssociations().size()>0)
+				return true;
+			// Boundary Events are normally contained in the same container as
+			// the Activity; if they are not, assume the Activity has children
+			// rather than searching the whole model
+			if (!(activity.eContainer() instanceof FlowElementsContainer))
+				return true;
+			for (FlowElement fe : ((FlowElementsContainer)activity.eContainer()).getFlowElements()) {
+				if (fe instanceof BoundaryEvent && ((BoundaryEvent)fe).getAttachedToRef() == activity)
+					return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	protected boolean mayContain(EObject object) {
+		if (super.mayContain(object))
+			return true;
+		// Boundary Events are shown below the Activity they are attached to
+		for (EObject o = object; o!=null; o = o.eContainer()) {
+			if (o instanceof BoundaryEvent && ((BoundaryEvent)o).getAttachedToRef() == getFlowElement())
+				return true;
+		}
+		return false;
+	}
+	
 	public static List<Object> getFlowElementsContainerChildren(FlowElementsContainer container) {
 		List<Object> retList = new ArrayList<Object>();
 		List<FlowElement> flowElements = new ArrayList<FlowElement>();
@@ -96,4 +96,11 @@ public class GroupTreeEditPart extends AbstractGraphicsTreeEditPart {
 		}
 		return retList;
 	}
+
+	@Override
+	protected boolean hasModelChildren() {
+		// finding the grouped shapes requires a search of the whole diagram,
+		// so assume there are some until the Group is expanded
+		return true;
+	}
 }
\ No newline at end of file
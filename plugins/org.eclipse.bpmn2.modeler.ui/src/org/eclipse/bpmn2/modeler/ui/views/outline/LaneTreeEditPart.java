@@ -14,9 +14,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.bpmn2.BaseElement;
+import org.eclipse.bpmn2.FlowElement;
 import org.eclipse.bpmn2.FlowNode;
 import org.eclipse.bpmn2.Lane;
 import org.eclipse.bpmn2.SequenceFlow;
+import org.eclipse.emf.ecore.EObject;
 
 public class LaneTreeEditPart extends AbstractGraphicsTreeEditPart {
 
@@ -76,4 +78,36 @@ public class LaneTreeEditPart extends AbstractGraphicsTreeEditPart {
 		retList.addAll(flows);
 		return retList;
 	}
+	
+	@Override
+	protected boolean hasModelChildren() {
+		// Sequence Flows are only shown if the Lane has Flow Nodes
+		Lane lane = getLane();
+		return (lane.getChildLaneSet()!=null && lane.getChildLaneSet().getLanes().size()>0) ||
+				lane.getFlowNodeRefs().size()>0;
+	}
+	
+	@Override
+	protected boolean mayContain(EObject object) {
+		if (super.mayContain(object))
+			return true;
+		// the Flow Nodes in this Lane and the Sequence Flows connecting them are
+		// shown below the Lane, although they are contained in the Process
+		Lane lane = getLane();
+		for (EObject o = object; o!=null; o = o.eContainer()) {
+			if (o instanceof SequenceFlow) {
+				SequenceFlow sf = (SequenceFlow) o;
+				if (isInLane(sf.getSourceRef(), lane) || isInLane(sf.getTargetRef(), lane))
+					return true;
+			}
+			else if (o instanceof FlowElement && isInLane((FlowElement)o, lane))
+				return true;
+		}
+		return false;
+	}
+	
+	private static boolean isInLane(FlowElement fe, Lane lane) {
+		return lane.getFlowNodeRefs().contains(fe) ||
+				FlowElementTreeEditPart.isInLane(fe, lane.getChildLaneSet());
+	}
 }
\ No newline at end of file
@@ -16,6 +16,8 @@ import java.util.List;
 import org.eclipse.bpmn2.BaseElement;
 import org.eclipse.bpmn2.Participant;
 import org.eclipse.bpmn2.Process;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 
 public class PoolTreeEditPart extends AbstractGraphicsTreeEditPart {
 
@@ -56,4 +58,22 @@ public class PoolTreeEditPart extends AbstractGraphicsTreeEditPart {
 		}
 		return retList;
 	}
+	
+	@Override
+	protected boolean hasModelChildren() {
+		Process process = getParticipant().getProcessRef();
+		if (process==null)
+			return false;
+		RootElementTreeEditPart root = getRootEditPart();
+		return root==null || root.getModel()!=process;
+	}
+	
+	@Override
+	protected boolean mayContain(EObject object) {
+		if (super.mayContain(object))
+			return true;
+		// the Pool's Process is shown below the Pool
+		Process process = getParticipant().getProcessRef();
+		return process!=null && EcoreUtil.isAncestor(process, object);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package org.eclipse.bpmn2.modeler.core.adapters.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.bpmn2.Bpmn2Factory;
+import org.eclipse.bpmn2.Bpmn2Package;
+import org.eclipse.bpmn2.Definitions;
+import org.eclipse.bpmn2.Task;
+import org.eclipse.bpmn2.modeler.core.adapters.ExtendedPropertiesAdapter;
+import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntime;
+import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntimeAdapter;
+import org.eclipse.bpmn2.util.Bpmn2ResourceImpl;
+import org.eclipse.emf.common.notify.AdapterFactory;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.junit.Test;
+
+public class ExtendedPropertiesAdapterTest {
+
+	private static final int TASK_COUNT = 10000;
+
+	private static Resource createResource(String name) {
+		Resource resource = new Bpmn2ResourceImpl(URI.createURI(name));
+		TargetRuntimeAdapter.adapt(resource, TargetRuntime.getDefaultRuntime());
+		return resource;
+	}
+
+	@Test
+	public void testAdaptLargeModel() {
+		Resource resource = createResource("large.bpmn"); //$NON-NLS-1$
+		Definitions definitions = Bpmn2Factory.eINSTANCE.createDefinitions();
+		org.eclipse.bpmn2.Process process = Bpmn2Factory.eINSTANCE.createProcess();
+		definitions.getRootElements().add(process);
+		resource.getContents().add(definitions);
+		List<Task> tasks = new ArrayList<Task>(TASK_COUNT);
+		for (int i=0; i<TASK_COUNT; ++i) {
+			Task task = Bpmn2Factory.eINSTANCE.createTask();
+			process.getFlowElements().add(task);
+			tasks.add(task);
+		}
+
+		// every adapter that is not created by a registered factory uses the
+		// same shared factory, and adapting again returns the same adapter
+		Map<AdapterFactory, Boolean> factories = new IdentityHashMap<AdapterFactory, Boolean>();
+		for (Task task : tasks) {
+			ExtendedPropertiesAdapter adapter = ExtendedPropertiesAdapter.adapt(task);
+			assertNotNull(adapter);
+			assertSame(adapter, ExtendedPropertiesAdapter.adapt(task));
+			factories.put(adapter.getAdapterFactory(), Boolean.TRUE);
+		}
+		assertEquals(1, factories.size());
+
+		// EClass lookups share one dummy object
+		EClass eClass = Bpmn2Package.eINSTANCE.getTask();
+		for (int i=0; i<TASK_COUNT; ++i)
+			assertSame(ExtendedPropertiesAdapter.getDummyObject(eClass), ExtendedPropertiesAdapter.getDummyObject(eClass));
+	}
+
+	@Test
+	public void testResourceAdaptersAreNotShared() {
+		EClass eClass = Bpmn2Package.eINSTANCE.getTask();
+		Resource r1 = createResource("r1.bpmn"); //$NON-NLS-1$
+		Resource r2 = createResource("r2.bpmn"); //$NON-NLS-1$
+
+		ExtendedPropertiesAdapter a1 = ExtendedPropertiesAdapter.adapt(r1, eClass);
+		ExtendedPropertiesAdapter a2 = ExtendedPropertiesAdapter.adapt(r2, eClass);
+		assertNotSame(a1, a2);
+		EObject shared = ExtendedPropertiesAdapter.getDummyObject(eClass);
+		assertNotSame(shared, a1.getTarget());
+		assertNotSame(shared, a2.getTarget());
+		assertNotSame(a1.getTarget(), a2.getTarget());
+
+		ExtendedPropertiesAdapter f1 = ExtendedPropertiesAdapter.adapt(r1, eClass, Bpmn2Package.eINSTANCE.getFlowElement_Name());
+		assertNotSame(shared, f1.getTarget());
+	}
+}
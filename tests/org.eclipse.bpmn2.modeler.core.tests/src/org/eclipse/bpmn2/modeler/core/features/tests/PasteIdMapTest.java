@@ -0,0 +1,200 @@
+package org.eclipse.bpmn2.modeler.core.features.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.bpmn2.BaseElement;
+import org.eclipse.bpmn2.Bpmn2Factory;
+import org.eclipse.bpmn2.DataObject;
+import org.eclipse.bpmn2.DataObjectReference;
+import org.eclipse.bpmn2.Definitions;
+import org.eclipse.bpmn2.FlowElement;
+import org.eclipse.bpmn2.SequenceFlow;
+import org.eclipse.bpmn2.Task;
+import org.eclipse.bpmn2.modeler.core.features.DefaultPasteBPMNElementFeature;
+import org.eclipse.bpmn2.util.Bpmn2ResourceImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+public class PasteIdMapTest {
+
+	private static final int ELEMENT_COUNT = 1000;
+
+	private static class TestPasteFeature extends DefaultPasteBPMNElementFeature {
+		TestPasteFeature(Definitions definitions) {
+			super(null);
+			this.definitions = definitions;
+			initIdMaps();
+		}
+
+		/**
+		 * Copy an element into the same Process, the same way as the paste
+		 * feature does after it has constructed the copy.
+		 */
+		<T extends FlowElement> T paste(org.eclipse.bpmn2.Process process, T original) {
+			T copy = EcoreUtil.copy(original);
+			process.getFlowElements().add(copy);
+			remapIds(original, copy);
+			return copy;
+		}
+
+		String getCopyId(String originalId) {
+			return idMap.get(originalId);
+		}
+
+		boolean isCopy(EObject object) {
+			return wasCopied(object);
+		}
+
+		String put(String originalId, String copyId) {
+			return idMap.put(originalId, copyId);
+		}
+
+		String remove(String originalId) {
+			return idMap.remove(originalId);
+		}
+
+		void clear() {
+			idMap.clear();
+		}
+
+		Map<String, String> getIdMap() {
+			return idMap;
+		}
+
+		void assertSameContents(Map<String, String> expected) {
+			assertEquals(expected.size(), idMap.size());
+			Set<String> values = new HashSet<String>(expected.values());
+			for (int i=0; i<4 * ELEMENT_COUNT; ++i) {
+				String id = "Task_" + i;
+				assertEquals(id, expected.get(id), idMap.get(id));
+				assertEquals(id, expected.containsKey(id), idMap.containsKey(id));
+				assertEquals(id, values.contains(id), idMap.containsValue(id));
+			}
+		}
+	}
+
+	private static <T extends FlowElement> T addElement(org.eclipse.bpmn2.Process process, T element, String id) {
+		element.setId(id);
+		process.getFlowElements().add(element);
+		return element;
+	}
+
+	@Test
+	public void testIdMapMatchesHashMap() {
+		Map<String, String> expected = new HashMap<String, String>();
+		TestPasteFeature feature = new TestPasteFeature(Bpmn2Factory.eINSTANCE.createDefinitions());
+
+		// every pasted element gets a new ID
+		for (int i=0; i<ELEMENT_COUNT; ++i) {
+			String oldId = "Task_" + i;
+			String newId = "Task_" + (ELEMENT_COUNT + i);
+			expected.put(oldId, newId);
+			feature.put(oldId, newId);
+		}
+		feature.assertSameContents(expected);
+
+		// references to elements that were not copied keep their IDs,
+		// others are remapped, and some are remapped more than once
+		Random random = new Random(42);
+		for (int i=0; i<ELEMENT_COUNT; ++i) {
+			String oldId = "Task_" + random.nextInt(ELEMENT_COUNT);
+			String newId = "Task_" + random.nextInt(2 * ELEMENT_COUNT);
+			assertEquals(expected.put(oldId, newId), feature.put(oldId, newId));
+			if (i % 10 == 0) {
+				String removed = "Task_" + random.nextInt(ELEMENT_COUNT);
+				assertEquals(expected.remove(removed), feature.remove(removed));
+			}
+		}
+		feature.assertSameContents(expected);
+
+		// changes made through the collection views are seen by containsValue()
+		changeThroughViews(expected);
+		changeThroughViews(feature.getIdMap());
+		feature.assertSameContents(expected);
+
+		expected.clear();
+		feature.clear();
+		feature.assertSameContents(expected);
+	}
+
+	private static void changeThroughViews(Map<String, String> map) {
+		Iterator<Entry<String, String>> iter = map.entrySet().iterator();
+		while (iter.hasNext()) {
+			Entry<String, String> entry = iter.next();
+			int n = Integer.parseInt(entry.getKey().substring("Task_".length())); //$NON-NLS-1$
+			if (n % 7 == 0)
+				iter.remove();
+			else if (n % 5 == 0)
+				entry.setValue("Task_" + (3 * ELEMENT_COUNT + n)); //$NON-NLS-1$
+		}
+		map.keySet().remove("Task_1"); //$NON-NLS-1$
+		map.values().remove("Task_" + (3 * ELEMENT_COUNT + 5)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testPastedIdsAndReferences() {
+		Resource resource = new Bpmn2ResourceImpl(URI.createURI("paste.bpmn")); //$NON-NLS-1$
+		Definitions definitions = Bpmn2Factory.eINSTANCE.createDefinitions();
+		resource.getContents().add(definitions);
+		org.eclipse.bpmn2.Process process = Bpmn2Factory.eINSTANCE.createProcess();
+		definitions.getRootElements().add(process);
+
+		Task a = addElement(process, Bpmn2Factory.eINSTANCE.createTask(), "A"); //$NON-NLS-1$
+		Task b = addElement(process, Bpmn2Factory.eINSTANCE.createTask(), "B"); //$NON-NLS-1$
+		SequenceFlow flow = addElement(process, Bpmn2Factory.eINSTANCE.createSequenceFlow(), "F"); //$NON-NLS-1$
+		flow.setSourceRef(a);
+		flow.setTargetRef(b);
+		DataObject data = addElement(process, Bpmn2Factory.eINSTANCE.createDataObject(), "D"); //$NON-NLS-1$
+		DataObjectReference dataRef = addElement(process, Bpmn2Factory.eINSTANCE.createDataObjectReference(), "R"); //$NON-NLS-1$
+		dataRef.setDataObjectRef(data);
+
+		// shapes are pasted before connections; the Data Object is not copied
+		TestPasteFeature feature = new TestPasteFeature(definitions);
+		Task a2 = feature.paste(process, a);
+		Task b2 = feature.paste(process, b);
+		DataObjectReference dataRef2 = feature.paste(process, dataRef);
+		SequenceFlow flow2 = feature.paste(process, flow);
+
+		// the copies get new, unique IDs
+		Set<String> ids = new HashSet<String>();
+		for (BaseElement copy : new BaseElement[] { a2, b2, dataRef2, flow2 }) {
+			String id = copy.getId();
+			assertNotNull(id);
+			assertTrue(id, ids.add(id));
+			assertTrue(id, feature.isCopy(copy));
+		}
+		assertEquals(a2.getId(), feature.getCopyId("A")); //$NON-NLS-1$
+		assertEquals(b2.getId(), feature.getCopyId("B")); //$NON-NLS-1$
+		assertEquals(flow2.getId(), feature.getCopyId("F")); //$NON-NLS-1$
+		for (BaseElement original : new BaseElement[] { a, b, flow, data, dataRef })
+			assertFalse(ids.contains(original.getId()));
+
+		// references to copied elements point to their copies
+		assertSame(a2, flow2.getSourceRef());
+		assertSame(b2, flow2.getTargetRef());
+		assertTrue(a2.getOutgoing().contains(flow2));
+		assertTrue(b2.getIncoming().contains(flow2));
+		// the originals are unchanged
+		assertSame(a, flow.getSourceRef());
+		assertSame(b, flow.getTargetRef());
+
+		// references to elements that were not copied are kept
+		assertSame(data, dataRef2.getDataObjectRef());
+		assertEquals("D", feature.getCopyId("D")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,99 @@
+package org.eclipse.bpmn2.modeler.core.preferences.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.bpmn2.Bpmn2Package;
+import org.eclipse.bpmn2.modeler.core.preferences.ModelEnablements;
+import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModelEnablementsTest {
+
+	private ModelEnablements me;
+
+	@Before
+	public void setUp() {
+		me = new ModelEnablements(TargetRuntime.getDefaultRuntime(), "test");
+		me.setEnableIdAttribute(false);
+	}
+
+	@Test
+	public void testEnableClass() {
+		Bpmn2Package p = Bpmn2Package.eINSTANCE;
+		assertFalse(me.isEnabled(p.getTask()));
+
+		me.setEnabled("Task", true);
+		assertEquals(1, me.size());
+		assertTrue(me.isEnabled(p.getTask()));
+		assertTrue(me.isEnabled(p.getTask(), p.getFlowElement_Name()));
+		assertTrue(me.isEnabled("Task", "documentation"));
+		assertTrue(me.getAllEnabled().contains("Task.name"));
+		assertFalse(me.isEnabled(p.getUserTask()));
+
+		me.setEnabled("Task", false);
+		assertEquals(0, me.size());
+		assertFalse(me.isEnabled(p.getTask(), p.getFlowElement_Name()));
+	}
+
+	@Test
+	public void testEnableFeature() {
+		me.setEnabled("Task", "name", true);
+		assertTrue(me.isEnabled("Task", "name"));
+		assertFalse(me.isEnabled("Task", "documentation"));
+		assertEquals(Arrays.asList("name"), me.getAllEnabledFeatures("Task"));
+
+		// a class without any enabled features has all of its features enabled
+		me.setEnabled("Task", "name", false);
+		assertTrue(me.isEnabled("Task", "documentation"));
+
+		// disabling a class also discards its features
+		me.setEnabled("Task", "name", true);
+		me.setEnabled("Task", false);
+		me.setEnabled("Task", "documentation", true);
+		assertFalse(me.isEnabled("Task", "name"));
+		assertTrue(me.isEnabled("Task", "documentation"));
+	}
+
+	@Test
+	public void testSuperTypes() {
+		me.setEnabled("BaseElement", "documentation", true);
+		me.setEnabled("Task", "name", true);
+		assertTrue(me.isEnabled("Task", "documentation"));
+		assertFalse(me.isEnabled("Task", "extensionValues"));
+	}
+
+	@Test
+	public void testCopy() {
+		me.setEnabled("Task", "name", true);
+		me.setEnabled("UserTask", "renderings", true);
+
+		ModelEnablements copy = new ModelEnablements(TargetRuntime.getDefaultRuntime(), "copy");
+		copy.setEnableIdAttribute(false);
+		copy.copy(me);
+		List<String> all = copy.getAllEnabled();
+		assertEquals(me.getAllEnabled(), all);
+		assertEquals(4, all.size());
+		assertTrue(all.containsAll(Arrays.asList("Task", "Task.name", "UserTask", "UserTask.renderings")));
+
+		// the copy is independent of the original
+		copy.setEnabled("Task", "name", false);
+		copy.setEnabled("Task", "documentation", true);
+		assertTrue(me.isEnabled("Task", "name"));
+		assertFalse(me.isEnabled("Task", "documentation"));
+	}
+
+	@Test
+	public void testEnableAll() {
+		me.setEnabledAll(true);
+		assertTrue(me.isEnabled(Bpmn2Package.eINSTANCE.getScriptTask(), Bpmn2Package.eINSTANCE.getScriptTask_Script()));
+		me.setEnabledAll(false);
+		assertEquals(0, me.size());
+		assertTrue(me.getAllEnabled().isEmpty());
+	}
+}
@@ -0,0 +1,80 @@
+package org.eclipse.bpmn2.modeler.core.preferences.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.bpmn2.modeler.core.preferences.ShapeStyle;
+import org.eclipse.bpmn2.modeler.core.preferences.ShapeStyle.LabelPosition;
+import org.eclipse.bpmn2.modeler.core.preferences.ShapeStyle.RoutingStyle;
+import org.eclipse.graphiti.util.IColorConstant;
+import org.junit.Test;
+
+public class ShapeStyleCodecTest {
+
+	private static ShapeStyle createStyle() {
+		ShapeStyle ss = new ShapeStyle();
+		ss.setDefaultColors(ShapeStyle.stringToColor("80C0FF"));
+		ss.setLabelFont(ShapeStyle.stringToFont("courier,12,I,B"));
+		ss.setRoutingStyle(RoutingStyle.AUTOMATIC);
+		ss.setUseDefaultSize(true);
+		ss.setDefaultWidth(123);
+		ss.setDefaultHeight(45);
+		ss.setLabelPosition(LabelPosition.EAST);
+		return ss;
+	}
+
+	@Test
+	public void testEncodeDecode() {
+		ShapeStyle ss = createStyle();
+		String encoded = ShapeStyle.encode(ss);
+		ShapeStyle decoded = ShapeStyle.decode(encoded);
+		assertEquals(ss, decoded);
+		assertEquals(ss.hashCode(), decoded.hashCode());
+		assertEquals(encoded, ShapeStyle.encode(decoded));
+		assertEquals(RoutingStyle.AUTOMATIC, decoded.getRoutingStyle());
+		assertEquals(LabelPosition.EAST, decoded.getLabelPosition());
+		assertEquals(123, decoded.getDefaultWidth());
+		assertEquals(45, decoded.getDefaultHeight());
+		assertEquals("courier,12,I,B", ShapeStyle.fontToString(decoded.getLabelFont()));
+
+		// surrounding white space and trailing empty fields are ignored
+		assertEquals(ss, ShapeStyle.decode(" " + encoded + ";; "));
+	}
+
+	@Test
+	public void testDecodeShortString() {
+		ShapeStyle ss = ShapeStyle.decode("FFFFFF;000000;;;");
+		assertEquals(new ShapeStyle(), ss);
+		assertEquals(new ShapeStyle(), ShapeStyle.decode(null));
+	}
+
+	@Test
+	public void testCopy() {
+		ShapeStyle ss = createStyle();
+		ss.setObject("Task");
+		ShapeStyle copy = new ShapeStyle(ss);
+		assertEquals(ss, copy);
+		assertEquals(ss.hashCode(), copy.hashCode());
+		assertEquals("Task", copy.getObject());
+		assertFalse(copy.isDirty());
+		// the copy must not share the font object
+		assertTrue(ss.getLabelFont() != copy.getLabelFont());
+
+		copy.setDefaultWidth(99);
+		assertFalse(ss.equals(copy));
+		assertEquals(123, ss.getDefaultWidth());
+	}
+
+	@Test
+	public void testSharedColors() {
+		IColorConstant c1 = ShapeStyle.stringToColor("D4E7F8");
+		IColorConstant c2 = ShapeStyle.stringToColor("212,231,248");
+		assertSame(c1, c2);
+		assertSame(c1, ShapeStyle.getColor(212, 231, 248));
+		assertEquals("D4E7F8", ShapeStyle.colorToString(c1));
+		// short strings decode as black
+		assertSame(ShapeStyle.getColor(0, 0, 0), ShapeStyle.stringToColor("1"));
+	}
+}
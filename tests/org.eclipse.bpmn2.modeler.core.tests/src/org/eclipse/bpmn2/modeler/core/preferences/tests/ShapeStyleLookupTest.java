@@ -0,0 +1,80 @@
+package org.eclipse.bpmn2.modeler.core.preferences.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.bpmn2.Bpmn2Factory;
+import org.eclipse.bpmn2.modeler.core.preferences.Bpmn2Preferences;
+import org.eclipse.bpmn2.modeler.core.preferences.ShapeStyle;
+import org.eclipse.bpmn2.modeler.core.runtime.TargetRuntime;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShapeStyleLookupTest {
+
+	private static final int ELEMENT_COUNT = 10000;
+	private static final int ITERATIONS = 10;
+
+	private List<EObject> elements = new ArrayList<EObject>();
+
+	@Before
+	public void setUp() {
+		Bpmn2Factory f = Bpmn2Factory.eINSTANCE;
+		for (int i=0; i<ELEMENT_COUNT; ++i) {
+			switch (i % 10) {
+			case 0: elements.add(f.createTask()); break;
+			case 1: elements.add(f.createUserTask()); break;
+			case 2: elements.add(f.createScriptTask()); break;
+			case 3: elements.add(f.createStartEvent()); break;
+			case 4: elements.add(f.createEndEvent()); break;
+			case 5: elements.add(f.createExclusiveGateway()); break;
+			case 6: elements.add(f.createParallelGateway()); break;
+			case 7: elements.add(f.createSequenceFlow()); break;
+			case 8: elements.add(f.createDataInputAssociation()); break;
+			case 9: elements.add(f.createDataOutputAssociation()); break;
+			}
+		}
+	}
+
+	@Test
+	public void testGetShapeStyleId() {
+		TargetRuntime rt = TargetRuntime.getDefaultRuntime();
+		for (int n=0; n<ITERATIONS; ++n) {
+			for (EObject o : elements) {
+				String id = Bpmn2Preferences.getShapeStyleId(rt, o);
+				String expected = Bpmn2Preferences.getShapeStyleKey(rt, o.eClass().getInstanceClass());
+				assertEquals(expected, id);
+			}
+		}
+
+		// Data Input and Output Associations share a style
+		assertEquals(Bpmn2Preferences.getShapeStyleKey(rt, "DataAssociation"),
+				Bpmn2Preferences.getShapeStyleId(rt, Bpmn2Factory.eINSTANCE.createDataInputAssociation()));
+	}
+
+	@Test
+	public void testGetShapeStyle() {
+		Bpmn2Preferences prefs = Bpmn2Preferences.getInstance((IProject)null);
+		Map<String, ShapeStyle> styles = new HashMap<String, ShapeStyle>();
+		for (int n=0; n<ITERATIONS; ++n) {
+			for (EObject o : elements) {
+				ShapeStyle ss = prefs.getShapeStyle(o);
+				assertNotNull(ss);
+				String name = o.eClass().getName();
+				if (styles.containsKey(name))
+					assertSame(styles.get(name), ss);
+				else
+					styles.put(name, ss);
+			}
+		}
+		assertSame(styles.get("DataInputAssociation"), styles.get("DataOutputAssociation"));
+	}
+}
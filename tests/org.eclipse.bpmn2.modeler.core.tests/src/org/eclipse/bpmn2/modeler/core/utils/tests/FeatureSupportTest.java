@@ -0,0 +1,80 @@
+package org.eclipse.bpmn2.modeler.core.utils.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.bpmn2.modeler.core.utils.FeatureSupport;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.ILayoutContext;
+import org.eclipse.graphiti.features.context.IUpdateContext;
+import org.eclipse.graphiti.mm.pictograms.ChopboxAnchor;
+import org.eclipse.graphiti.mm.pictograms.Connection;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.FreeFormConnection;
+import org.eclipse.graphiti.mm.pictograms.PictogramsFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeatureSupportTest {
+
+	private static final int TASK_COUNT = 500;
+
+	@Mock
+	IFeatureProvider fp;
+
+	ContainerShape lane;
+
+	List<ContainerShape> tasks;
+
+	@Before
+	public void setUp() {
+		PictogramsFactory factory = PictogramsFactory.eINSTANCE;
+		lane = factory.createContainerShape();
+		tasks = new ArrayList<ContainerShape>();
+		ChopboxAnchor previous = null;
+		for (int i=0; i<TASK_COUNT; ++i) {
+			ContainerShape task = factory.createContainerShape();
+			ChopboxAnchor anchor = factory.createChopboxAnchor();
+			task.getAnchors().add(anchor);
+			lane.getChildren().add(task);
+			tasks.add(task);
+			// chain the tasks with connections
+			if (previous!=null) {
+				FreeFormConnection connection = factory.createFreeFormConnection();
+				connection.setStart(previous);
+				connection.setEnd(anchor);
+			}
+			previous = anchor;
+		}
+	}
+
+	@Test
+	public void testUpdateConnectionsOfMovedLane() {
+		// the feature provider has no layout or update features, so each
+		// connection update is counted by the layout feature lookups
+		FeatureSupport.updateConnections(fp, tasks);
+
+		verify(fp, times(TASK_COUNT - 1)).getLayoutFeature(any(ILayoutContext.class));
+		verify(fp, times(TASK_COUNT - 1)).getUpdateFeature(any(IUpdateContext.class));
+	}
+
+	@Test
+	public void testUpdateConnectionsWithList() {
+		// callers that pass a List must still have each connection updated once
+		List<Connection> alreadyUpdated = new ArrayList<Connection>();
+		for (ContainerShape task : tasks)
+			FeatureSupport.updateConnections(fp, task, alreadyUpdated);
+
+		assertEquals(TASK_COUNT - 1, alreadyUpdated.size());
+		verify(fp, times(TASK_COUNT - 1)).getLayoutFeature(any(ILayoutContext.class));
+	}
+}
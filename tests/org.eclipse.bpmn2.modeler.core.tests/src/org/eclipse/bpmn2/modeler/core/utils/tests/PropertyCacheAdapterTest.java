@@ -0,0 +1,139 @@
+package org.eclipse.bpmn2.modeler.core.utils.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.bpmn2.modeler.core.utils.FeatureSupport;
+import org.eclipse.emf.ecore.change.ChangeDescription;
+import org.eclipse.emf.ecore.change.util.ChangeRecorder;
+import org.eclipse.graphiti.mm.MmFactory;
+import org.eclipse.graphiti.mm.Property;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.PictogramsFactory;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.graphiti.services.IPeService;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PropertyCacheAdapterTest {
+
+	private static final int PROPERTY_COUNT = 100;
+
+	private IPeService peService;
+	private ContainerShape shape;
+
+	@Before
+	public void setUp() {
+		peService = Graphiti.getPeService();
+		shape = PictogramsFactory.eINSTANCE.createContainerShape();
+		for (int i=0; i<PROPERTY_COUNT; ++i)
+			peService.setPropertyValue(shape, "key" + i, "value" + i); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private Property addProperty(String key, String value) {
+		Property p = MmFactory.eINSTANCE.createProperty();
+		p.setKey(key);
+		p.setValue(value);
+		shape.getProperties().add(p);
+		return p;
+	}
+
+	private int countProperties(String key) {
+		int count = 0;
+		for (Property p : shape.getProperties()) {
+			if (key.equals(p.getKey()))
+				++count;
+		}
+		return count;
+	}
+
+	@Test
+	public void testReadThrough() {
+		for (int i=0; i<PROPERTY_COUNT; ++i) {
+			String key = "key" + i; //$NON-NLS-1$
+			assertEquals(peService.getPropertyValue(shape, key), FeatureSupport.getPropertyValue(shape, key));
+		}
+		assertNull(FeatureSupport.getPropertyValue(shape, "missing")); //$NON-NLS-1$
+
+		// the first property with a given key wins
+		addProperty("key0", "other"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("value0", FeatureSupport.getPropertyValue(shape, "key0")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testWriteThrough() {
+		assertEquals("value1", FeatureSupport.getPropertyValue(shape, "key1")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		// update an existing property in place
+		Property p = shape.getProperties().get(1);
+		FeatureSupport.setPropertyValue(shape, "key1", "changed"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("changed", FeatureSupport.getPropertyValue(shape, "key1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("changed", peService.getPropertyValue(shape, "key1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame(p, shape.getProperties().get(1));
+
+		// add a new property
+		FeatureSupport.setPropertyValue(shape, "new", "added"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("added", FeatureSupport.getPropertyValue(shape, "new")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("added", peService.getPropertyValue(shape, "new")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(PROPERTY_COUNT + 1, shape.getProperties().size());
+
+		// remove a property
+		FeatureSupport.setPropertyValue(shape, "key2", null); //$NON-NLS-1$
+		assertNull(FeatureSupport.getPropertyValue(shape, "key2")); //$NON-NLS-1$
+		assertNull(peService.getPropertyValue(shape, "key2")); //$NON-NLS-1$
+		assertEquals(PROPERTY_COUNT, shape.getProperties().size());
+
+		// duplicates of a key are removed when it is set
+		addProperty("key3", "duplicate"); //$NON-NLS-1$ //$NON-NLS-2$
+		addProperty("key3", "duplicate"); //$NON-NLS-1$ //$NON-NLS-2$
+		FeatureSupport.setPropertyValue(shape, "key3", "single"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(1, countProperties("key3")); //$NON-NLS-1$
+		assertEquals("single", FeatureSupport.getPropertyValue(shape, "key3")); //$NON-NLS-1$ //$NON-NLS-2$
+		addProperty("key4", "duplicate"); //$NON-NLS-1$ //$NON-NLS-2$
+		FeatureSupport.setPropertyValue(shape, "key4", null); //$NON-NLS-1$
+		assertEquals(0, countProperties("key4")); //$NON-NLS-1$
+		assertNull(FeatureSupport.getPropertyValue(shape, "key4")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testExternalChanges() {
+		assertEquals("value5", FeatureSupport.getPropertyValue(shape, "key5")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		peService.setPropertyValue(shape, "key5", "external"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("external", FeatureSupport.getPropertyValue(shape, "key5")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		peService.setPropertyValue(shape, "new", "external"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("external", FeatureSupport.getPropertyValue(shape, "new")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		peService.removeProperty(shape, "key6"); //$NON-NLS-1$
+		assertNull(FeatureSupport.getPropertyValue(shape, "key6")); //$NON-NLS-1$
+
+		shape.getProperties().get(0).setKey("renamed"); //$NON-NLS-1$
+		assertNull(FeatureSupport.getPropertyValue(shape, "key0")); //$NON-NLS-1$
+		assertEquals("value0", FeatureSupport.getPropertyValue(shape, "renamed")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testUndo() {
+		assertEquals("value7", FeatureSupport.getPropertyValue(shape, "key7")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		ChangeRecorder recorder = new ChangeRecorder(shape);
+		FeatureSupport.setPropertyValue(shape, "key7", "changed"); //$NON-NLS-1$ //$NON-NLS-2$
+		FeatureSupport.setPropertyValue(shape, "key8", null); //$NON-NLS-1$
+		FeatureSupport.setPropertyValue(shape, "new", "added"); //$NON-NLS-1$ //$NON-NLS-2$
+		ChangeDescription changes = recorder.endRecording();
+		assertEquals("changed", FeatureSupport.getPropertyValue(shape, "key7")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		changes.applyAndReverse();
+		assertEquals("value7", FeatureSupport.getPropertyValue(shape, "key7")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("value8", FeatureSupport.getPropertyValue(shape, "key8")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(FeatureSupport.getPropertyValue(shape, "new")); //$NON-NLS-1$
+
+		// redo
+		changes.applyAndReverse();
+		assertEquals("changed", FeatureSupport.getPropertyValue(shape, "key7")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(FeatureSupport.getPropertyValue(shape, "key8")); //$NON-NLS-1$
+		assertEquals("added", FeatureSupport.getPropertyValue(shape, "new")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,56 @@
+package org.eclipse.bpmn2.modeler.core.validation.tests;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.bpmn2.modeler.core.validation.ValidationStatusAdapter;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.graphiti.platform.IPlatformImageConstants;
+import org.eclipse.graphiti.tb.IDecorator;
+import org.eclipse.graphiti.tb.ImageDecorator;
+import org.junit.Test;
+
+public class ValidationStatusAdapterTest {
+
+	private static IStatus createError(String message) {
+		return new Status(IStatus.ERROR, "org.eclipse.bpmn2.modeler.core.tests", message);
+	}
+
+	@Test
+	public void testDecoratorsAreCachedUntilStatusChanges() {
+		ValidationStatusAdapter adapter = new ValidationStatusAdapter();
+		assertNull(adapter.getDecorators());
+
+		adapter.addValidationStatus(createError("first"));
+		int revision = adapter.getRevision();
+		IDecorator[] decorators = new IDecorator[] { new ImageDecorator(IPlatformImageConstants.IMG_ECLIPSE_ERROR_TSK) };
+		adapter.setDecorators(decorators, revision);
+
+		// repeated lookups return the same array
+		for (int i=0; i<1000; ++i)
+			assertSame(decorators, adapter.getDecorators());
+
+		adapter.addValidationStatus(createError("second"));
+		assertTrue(revision != adapter.getRevision());
+		assertNull(adapter.getDecorators());
+
+		revision = adapter.getRevision();
+		adapter.setDecorators(decorators, revision);
+		assertSame(decorators, adapter.getDecorators());
+
+		adapter.clearValidationStatus();
+		assertNull(adapter.getDecorators());
+	}
+
+	@Test
+	public void testStaleDecoratorsAreNotCached() {
+		ValidationStatusAdapter adapter = new ValidationStatusAdapter();
+		int revision = adapter.getRevision();
+		// the status changes while the decorators are being created
+		adapter.addValidationStatus(createError("error"));
+		adapter.setDecorators(new IDecorator[0], revision);
+		assertNull(adapter.getDecorators());
+	}
+}
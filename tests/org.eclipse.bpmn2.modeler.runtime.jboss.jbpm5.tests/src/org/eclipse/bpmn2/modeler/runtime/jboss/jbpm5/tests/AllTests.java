@@ -15,7 +15,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ TestWIDHandler.class })
+@SuiteClasses({ TestWIDHandler.class, TestWIDLoader.class })
 public class AllTests {
 
 }
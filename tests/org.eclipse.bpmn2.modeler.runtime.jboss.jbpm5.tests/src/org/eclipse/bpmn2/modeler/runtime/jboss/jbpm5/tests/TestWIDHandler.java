@@ -14,16 +14,21 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Scanner;
 
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WIDException;
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WIDParser;
 import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WorkItemDefinition;
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WorkItemDefinition.Parameter;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -128,6 +133,67 @@ public class TestWIDHandler {
 		}
 	}
 
+	private static void assertParameters(Map<String, Parameter> parameters, String... namesAndTypes) {
+		Assert.assertEquals(namesAndTypes.length / 2, parameters.size());
+		int i = 0;
+		for (Entry<String, Parameter> e : parameters.entrySet()) {
+			Assert.assertEquals(namesAndTypes[i++], e.getKey());
+			Assert.assertEquals(namesAndTypes[i++], e.getValue().type);
+			Assert.assertNull(e.getValue().value);
+		}
+	}
+
+	/*
+	 * The expected values were captured from the String based parser that
+	 * parseReader() replaced.
+	 */
+	@Test
+	public void testReader() {
+		String stringDataType = "org.drools.process.core.datatype.impl.type.StringDataType";
+		List<WorkItemDefinition> widMap = null;
+		try {
+			widMap = WIDParser.parseReader(new StringReader(getWidFile("Email.wid")));
+		} catch (WIDException e) {
+			Assert.fail("Failed with exception " + e.getMessage());
+		}
+		Assert.assertEquals(1, widMap.size());
+		WorkItemDefinition wid = widMap.get(0);
+		Assert.assertEquals("Email WID", wid.getName());
+		Assert.assertEquals("Email (WID) Task", wid.getDisplayName());
+		Assert.assertEquals("Sending emails", wid.getDescription());
+		Assert.assertEquals("Communication", wid.getCategory());
+		Assert.assertEquals("email.gif", wid.getIcon());
+		Assert.assertEquals("org.drools.eclipse.flow.common.editor.editpart.work.EmailCustomEditor", wid.getEclipseCustomEditor());
+		Assert.assertNull(wid.getCustomEditor());
+		Assert.assertEquals(Arrays.asList(stringDataType), wid.getImports());
+		assertParameters(wid.getParameters(),
+				"From", stringDataType,
+				"To", stringDataType,
+				"Subject", stringDataType,
+				"Body", stringDataType);
+		Assert.assertTrue(wid.getResults().isEmpty());
+
+		try {
+			widMap = WIDParser.parseReader(new StringReader(getWidFile("java.wid")));
+		} catch (WIDException e) {
+			Assert.fail("Failed with exception " + e.getMessage());
+		}
+		Assert.assertEquals(1, widMap.size());
+		wid = widMap.get(0);
+		Assert.assertEquals("Java", wid.getName());
+		Assert.assertEquals("Java", wid.getDisplayName());
+		Assert.assertNull(wid.getIcon());
+		Assert.assertEquals("org.drools.eclipse.flow.common.editor.editpart.work.SampleCustomEditor", wid.getCustomEditor());
+		assertParameters(wid.getParameters(),
+				"Class", stringDataType,
+				"Method", stringDataType,
+				"Object", "ObjectDataType",
+				"ParameterTypes", "ListDataType",
+				"Parameters", "ListDataType");
+		assertParameters(wid.getResults(),
+				"Result", "ObjectDataType");
+	}
+
 	@Test
 	public void testFail() {
 		System.out.println("testFail: no wid");
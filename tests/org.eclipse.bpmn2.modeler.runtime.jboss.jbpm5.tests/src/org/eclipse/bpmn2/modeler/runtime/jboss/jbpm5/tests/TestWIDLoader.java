@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2012, 2013, 2014 Red Hat, Inc.
+ *  All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WIDLoader;
+import org.eclipse.bpmn2.modeler.runtime.jboss.jbpm5.wid.WorkItemDefinition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests loading of WIDs from classpath jars
+ */
+public class TestWIDLoader {
+
+	private static final int JAR_COUNT = 200;
+
+	// a 1x1 transparent GIF
+	private static final byte[] ICON = new byte[] {
+		'G', 'I', 'F', '8', '9', 'a', 1, 0, 1, 0, (byte)0x80, 0, 0,
+		0, 0, 0, (byte)0xff, (byte)0xff, (byte)0xff,
+		'!', (byte)0xf9, 4, 1, 0, 0, 0, 0,
+		',', 0, 0, 0, 0, 1, 0, 1, 0, 0,
+		2, 2, 'D', 1, 0, ';'
+	};
+
+	private File tempDir;
+	private List<File> jarFiles = new ArrayList<File>();
+
+	@Before
+	public void setUp() throws IOException {
+		tempDir = File.createTempFile("widloader", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		for (int i=0; i<JAR_COUNT; ++i) {
+			jarFiles.add(createJar(i));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : jarFiles)
+			f.delete();
+		tempDir.delete();
+	}
+
+	private File createJar(int index) throws IOException {
+		File file = new File(tempDir, "wids" + index + ".jar");
+		JarOutputStream os = new JarOutputStream(new FileOutputStream(file));
+		try {
+			// every jar defines a unique "Task<n>" and a "Shared" WID
+			String wid =
+				"[\n" +
+				"  [\n" +
+				"    \"name\" : \"Task" + index + "\",\n" +
+				"    \"displayName\" : \"Task " + index + "\",\n" +
+				"    \"icon\" : \"icons/task" + index + ".gif\"\n" +
+				"  ],\n" +
+				"  [\n" +
+				"    \"name\" : \"Shared\",\n" +
+				"    \"displayName\" : \"Shared " + index + "\",\n" +
+				"    \"icon\" : \"icons/shared.gif\"\n" +
+				"  ]\n" +
+				"]\n";
+			os.putNextEntry(new JarEntry("META-INF/task" + index + ".wid"));
+			os.write(wid.getBytes("UTF-8"));
+			os.closeEntry();
+			os.putNextEntry(new JarEntry("icons/task" + index + ".gif"));
+			os.write(ICON);
+			os.closeEntry();
+			os.putNextEntry(new JarEntry("icons/shared.gif"));
+			os.write(ICON);
+			os.closeEntry();
+		}
+		finally {
+			os.close();
+		}
+		return file;
+	}
+
+	@Test
+	public void testClasspathJars() {
+		System.out.println("testClasspathJars: " + JAR_COUNT + " jars");
+		WIDLoader loader = new WIDLoader();
+		loader.loadClasspathJars(jarFiles);
+
+		List<WorkItemDefinition> wids = loader.getClasspathWIDs();
+		// one unique WID per jar, plus a single "Shared" WID
+		Assert.assertEquals(JAR_COUNT + 1, wids.size());
+		Assert.assertEquals(JAR_COUNT + 1, loader.getClasspathIcons().size());
+
+		// the first jar on the classpath wins
+		WorkItemDefinition shared = wids.get(1);
+		Assert.assertEquals("Shared", shared.getName());
+		Assert.assertEquals("Shared 0", shared.getDisplayName());
+		Assert.assertEquals(jarFiles.get(0).getAbsoluteFile(), shared.getDefinitionFile());
+
+		// the remaining WIDs are in classpath order
+		Assert.assertEquals("Task0", wids.get(0).getName());
+		for (int i=1; i<JAR_COUNT; ++i) {
+			WorkItemDefinition wid = wids.get(i + 1);
+			Assert.assertEquals("Task" + i, wid.getName());
+			Assert.assertEquals(jarFiles.get(i).getAbsoluteFile(), wid.getDefinitionFile());
+		}
+	}
+}